@@ -0,0 +1,34 @@
+package com.amazonaws.samples.qdevmovies.benchmarks;
+
+import com.amazonaws.samples.qdevmovies.movies.Movie;
+import com.amazonaws.samples.qdevmovies.movies.MovieService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scales the bundled catalog up to benchmark sizes by cycling through its movies with fresh IDs,
+ * numbered titles and shifted years, so index selectivity stays close to the real data.
+ */
+final class BenchmarkCatalogs {
+    private static final List<Movie> BUNDLED = new MovieService().getAllMovies();
+
+    private BenchmarkCatalogs() {
+    }
+
+    static List<Movie> ofSize(int size) {
+        List<Movie> movies = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Movie base = BUNDLED.get(i % BUNDLED.size());
+            int copy = i / BUNDLED.size();
+            String title = copy == 0 ? base.getMovieName() : base.getMovieName() + " " + copy;
+            movies.add(new Movie(i + 1, title, base.getDirector(), base.getYear() + copy % 30,
+                    base.getGenre(), base.getDescription(), base.getDuration(), base.getImdbRating()));
+        }
+        return movies;
+    }
+
+    static MovieService serviceOfSize(int size) {
+        return new MovieService(ofSize(size));
+    }
+}
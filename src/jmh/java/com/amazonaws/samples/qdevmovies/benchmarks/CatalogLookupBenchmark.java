@@ -0,0 +1,91 @@
+package com.amazonaws.samples.qdevmovies.benchmarks;
+
+import com.amazonaws.samples.qdevmovies.movies.Movie;
+import com.amazonaws.samples.qdevmovies.movies.MovieService;
+import com.amazonaws.samples.qdevmovies.movies.Review;
+import com.amazonaws.samples.qdevmovies.movies.ReviewService;
+import com.amazonaws.samples.qdevmovies.movies.SuggestionIndex;
+import com.amazonaws.samples.qdevmovies.utils.MovieIconUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-request lookups outside of search: name search, the genre list, reviews, icons and
+ * autocomplete suggestions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogLookupBenchmark {
+
+    @Param({"12", "10000", "100000"})
+    public int catalogSize;
+
+    private MovieService movieService;
+    private ReviewService reviewService;
+    private String[] titles;
+    private String[] prefixes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        movieService = BenchmarkCatalogs.serviceOfSize(catalogSize);
+        reviewService = new ReviewService();
+        List<Movie> movies = movieService.getAllMovies();
+        titles = new String[Math.min(movies.size(), 1024)];
+        for (int i = 0; i < titles.length; i++) {
+            titles[i] = movies.get(i).getMovieName();
+        }
+        // What a search box sends while someone types each title
+        prefixes = new String[titles.length];
+        for (int i = 0; i < prefixes.length; i++) {
+            String key = titles[i].toLowerCase();
+            prefixes[i] = key.substring(0, 1 + i % Math.min(key.length(), 8));
+        }
+    }
+
+    @Benchmark
+    public List<Movie> searchMoviesByName() {
+        return movieService.searchMoviesByName("the");
+    }
+
+    @Benchmark
+    public List<String> getAllGenres() {
+        return movieService.getAllGenres();
+    }
+
+    @Benchmark
+    public List<Review> getReviewsForMovie() {
+        // Cycle through IDs with and without reviews
+        next = (next + 1) & 15;
+        return reviewService.getReviewsForMovie(next);
+    }
+
+    @Benchmark
+    public List<SuggestionIndex.Suggestion> suggestTitles() {
+        next = (next + 1) % prefixes.length;
+        return movieService.getCatalog().getTitleSuggestions().suggest(prefixes[next], SuggestionIndex.TOP_K);
+    }
+
+    @Benchmark
+    public String getMovieIcon() {
+        next = (next + 1) % titles.length;
+        return MovieIconUtils.getMovieIcon(titles[next]);
+    }
+}
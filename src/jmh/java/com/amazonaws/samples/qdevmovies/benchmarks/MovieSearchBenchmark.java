@@ -0,0 +1,104 @@
+package com.amazonaws.samples.qdevmovies.benchmarks;
+
+import com.amazonaws.samples.qdevmovies.movies.Movie;
+import com.amazonaws.samples.qdevmovies.movies.MovieSearchCriteria;
+import com.amazonaws.samples.qdevmovies.movies.MoviePage;
+import com.amazonaws.samples.qdevmovies.movies.MovieService;
+import com.amazonaws.samples.qdevmovies.movies.MovieSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MovieService search paths across catalog sizes and every filter combination.
+ * The search cache is sized to zero for the uncached benchmarks so each call runs the indexes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovieSearchBenchmark {
+
+    @Param({"12", "10000", "100000"})
+    public int catalogSize;
+
+    @Param({"name", "id", "genre", "name+genre", "name+id", "range", "name+genre+range", "fuzzy", "fuzzy+genre", "text", "text+genre"})
+    public String filters;
+
+    private MovieService uncachedService;
+    private MovieService cachedService;
+    private MovieSearchCriteria criteria;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Movie> movies = BenchmarkCatalogs.ofSize(catalogSize);
+        uncachedService = new MovieService(movies);
+        uncachedService.configureSearchCache(0, Duration.ofMinutes(10));
+        cachedService = new MovieService(movies);
+        criteria = criteriaFor(filters, catalogSize);
+    }
+
+    static MovieSearchCriteria criteriaFor(String filters, int catalogSize) {
+        MovieSearchCriteria criteria = new MovieSearchCriteria();
+        for (String filter : filters.split("\\+")) {
+            switch (filter) {
+                case "name":
+                    criteria.setName("the");
+                    break;
+                case "fuzzy":
+                    // "quest" with a letter dropped
+                    criteria.setName("qest");
+                    criteria.setFuzzy(true);
+                    break;
+                case "text":
+                    criteria.setQ("family crime empire");
+                    break;
+                case "id":
+                    criteria.setId((long) (catalogSize / 2 + 1));
+                    break;
+                case "genre":
+                    criteria.setGenre("drama");
+                    break;
+                case "range":
+                    criteria.setMinYear(1990);
+                    criteria.setMinRating(4.5);
+                    criteria.setDirector("director");
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown filter: " + filter);
+            }
+        }
+        return criteria;
+    }
+
+    @Benchmark
+    public List<Movie> searchMovies() {
+        return uncachedService.searchMovies(criteria);
+    }
+
+    @Benchmark
+    public List<Movie> searchMoviesCached() {
+        return cachedService.searchMovies(criteria);
+    }
+
+    @Benchmark
+    public MoviePage searchTopRated() {
+        // The ten best rated matches, walked from the catalog's pre-sorted rating order
+        return uncachedService.searchSorted(criteria, MovieSort.RATING, true, null, 10);
+    }
+}
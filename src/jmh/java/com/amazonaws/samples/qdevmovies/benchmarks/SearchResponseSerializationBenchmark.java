@@ -0,0 +1,62 @@
+package com.amazonaws.samples.qdevmovies.benchmarks;
+
+import com.amazonaws.samples.qdevmovies.movies.MovieCatalog;
+import com.amazonaws.samples.qdevmovies.movies.MoviePage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a /movies/search response map, shaped like MovieSearchController builds it.
+ * "reflection" serializes the Movie objects; "cached" splices in the catalog's pre-serialized JSON.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchResponseSerializationBenchmark {
+
+    @Param({"1", "12", "100"})
+    public int pageSize;
+
+    @Param({"reflection", "cached"})
+    public String movies;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Map<String, Object> response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MovieCatalog catalog = new MovieCatalog(BenchmarkCatalogs.ofSize(1000), objectMapper);
+        MoviePage page = MoviePage.of(catalog.getMovies(), null, pageSize);
+        response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Batten down the hatches! Found 1000 movie treasures matching yer search, ye savvy sailor!");
+        response.put("movies", "cached".equals(movies) ? catalog.getJson().array(page.getMovies()) : page.getMovies());
+        response.put("count", page.getMovies().size());
+        response.put("total", page.getTotal());
+        response.put("nextCursor", page.getNextCursor());
+    }
+
+    @Benchmark
+    public byte[] serializeSearchResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,251 @@
+package com.amazonaws.samples.qdevmovies.loadtest;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Writes synthetic movies.json and mock-reviews.json files, in the schemas MovieService and
+ * ReviewService read, for scale testing.
+ * Output is streamed record by record with Jackson's JsonGenerator, so heap use stays flat
+ * from 10K to 10M movies; the only per-size state is the director popularity table.
+ *
+ * <p>Genres and directors follow Zipfian popularity, and review counts per movie follow a Zipfian
+ * distribution over a seeded shuffle of the catalog, so a few movies get most of the reviews.
+ * The same seed always produces the same files.
+ *
+ * <p>Options: --movies=10000, --reviews=100000, --seed=42, --skew=1.1, --out=target/generated-data
+ * Serve the result with -Dmovies.catalog.path=.../movies.json -Dmovies.reviews.path=.../mock-reviews.json
+ */
+public class CatalogGenerator {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int PROGRESS_EVERY = 1_000_000;
+
+    private static final String[] GENRES = {
+        "Drama", "Action/Crime", "Crime/Drama", "Action/Sci-Fi", "Drama/Romance", "Comedy",
+        "Adventure/Fantasy", "Drama/Thriller", "Horror", "Adventure/Sci-Fi", "Comedy/Romance",
+        "Drama/History", "Animation/Family", "Documentary", "Thriller", "Action/Adventure",
+        "Mystery/Thriller", "Western", "Musical", "War/Drama",
+    };
+    private static final String[] TITLE_OPENERS = {"The", "A", "Return of the", "Rise of the", "Last", "Secret", "Beyond the", "Night of the"};
+    private static final String[] TITLE_ADJECTIVES = {"Silent", "Crimson", "Hidden", "Broken", "Golden", "Midnight", "Wild", "Frozen", "Burning", "Lost", "Iron", "Savage"};
+    private static final String[] TITLE_NOUNS = {"Harbor", "Empire", "Storm", "Treasure", "Voyage", "Kingdom", "Escape", "Legacy", "Horizon", "Compass", "Tide", "Island", "Mutiny", "Anchor"};
+    private static final String[] FIRST_NAMES = {"John", "Michael", "Chris", "Anna", "Maria", "David", "Grace", "Peter", "Sofia", "James", "Lena", "Omar", "Yuki", "Ravi"};
+    private static final String[] LAST_NAMES = {"Director", "Filmmaker", "Moviemaker", "Storyteller", "Visionary", "Auteur", "Cinematographer", "Producer"};
+    private static final String[] PLOTS = {
+        "A reluctant hero must %s before the %s is lost forever.",
+        "Two rivals team up to %s, only to discover the %s was never what it seemed.",
+        "When a stranger arrives, a small town has to %s to protect the %s.",
+    };
+    private static final String[] PLOT_ACTIONS = {"cross the sea", "outwit a ruthless captain", "find a buried map", "survive one last heist", "uncover a family secret"};
+    private static final String[] USER_PREFIXES = {"MovieBuff", "CinemaLover", "FilmCritic", "PopcornPirate", "ReelSailor", "ScreenScout"};
+    private static final String[] AVATARS = {"👨", "👩", "🧔", "🎭", "🌟", "🎩", "🏴‍☠️", "🦜"};
+    private static final String[] COMMENTS = {
+        "Absolutely incredible storytelling.",
+        "A masterpiece that gets better with every viewing.",
+        "Solid performances, though the middle drags a bit.",
+        "Not my cup of grog, but I see the appeal.",
+        "The score alone be worth the price of admission!",
+        "Predictable, yet I enjoyed every minute.",
+    };
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        int movies = Integer.parseInt(options.getOrDefault("movies", "10000"));
+        long reviews = Long.parseLong(options.getOrDefault("reviews", "100000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        double skew = Double.parseDouble(options.getOrDefault("skew", "1.1"));
+        File out = new File(options.getOrDefault("out", "target/generated-data"));
+        if (movies <= 0 || reviews < 0 || skew <= 0) {
+            throw new IllegalArgumentException("Need --movies > 0, --reviews >= 0 and --skew > 0");
+        }
+        out.mkdirs();
+
+        CatalogGenerator generator = new CatalogGenerator(movies, seed, skew);
+        long start = System.nanoTime();
+        try (OutputStream stream = new BufferedOutputStream(new FileOutputStream(new File(out, "movies.json")), 1 << 16)) {
+            generator.writeMovies(stream);
+        }
+        System.out.printf("Wrote %d movies in %d ms%n", movies, (System.nanoTime() - start) / 1_000_000);
+
+        start = System.nanoTime();
+        long written;
+        try (OutputStream stream = new BufferedOutputStream(new FileOutputStream(new File(out, "mock-reviews.json")), 1 << 16)) {
+            written = generator.writeReviews(stream, reviews);
+        }
+        System.out.printf("Wrote %d reviews in %d ms to %s%n", written, (System.nanoTime() - start) / 1_000_000, out.getAbsolutePath());
+    }
+
+    private final int movieCount;
+    private final long seed;
+    private final double skew;
+    private final String[] directors;
+    private final ZipfSampler genreSampler;
+    private final ZipfSampler directorSampler;
+
+    CatalogGenerator(int movieCount, long seed, double skew) {
+        this.movieCount = movieCount;
+        this.seed = seed;
+        this.skew = skew;
+        // Roughly 20 movies per director on average, with a long tail of one-film directors
+        int directorCount = Math.max(10, movieCount / 20);
+        this.directors = new String[Math.min(directorCount, FIRST_NAMES.length * LAST_NAMES.length * 1000)];
+        for (int i = 0; i < directors.length; i++) {
+            String name = FIRST_NAMES[i % FIRST_NAMES.length] + " " + LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length];
+            int series = i / (FIRST_NAMES.length * LAST_NAMES.length);
+            directors[i] = series == 0 ? name : name + " " + toRoman(series + 1);
+        }
+        this.genreSampler = new ZipfSampler(GENRES.length, skew);
+        this.directorSampler = new ZipfSampler(directors.length, skew);
+    }
+
+    /**
+     * Streams a JSON array of movies with IDs 1..movieCount.
+     */
+    void writeMovies(OutputStream stream) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(stream, JsonEncoding.UTF8)) {
+            json.writeStartArray();
+            for (int id = 1; id <= movieCount; id++) {
+                json.writeStartObject();
+                json.writeNumberField("id", id);
+                json.writeStringField("movieName", title(random, id));
+                json.writeStringField("director", directors[directorSampler.sample(random)]);
+                // Skewed towards recent years, like real catalogs
+                json.writeNumberField("year", 2024 - (int) (104 * Math.pow(random.nextDouble(), 2)));
+                json.writeStringField("genre", GENRES[genreSampler.sample(random)]);
+                json.writeStringField("description", String.format(PLOTS[random.nextInt(PLOTS.length)],
+                        PLOT_ACTIONS[random.nextInt(PLOT_ACTIONS.length)], TITLE_NOUNS[random.nextInt(TITLE_NOUNS.length)].toLowerCase()));
+                json.writeNumberField("duration", 80 + random.nextInt(40) + random.nextInt(40) + random.nextInt(40));
+                json.writeNumberField("imdbRating", Math.round((2.0 + 3.0 * Math.sqrt(random.nextDouble())) * 10) / 10.0);
+                json.writeEndObject();
+                if (id % PROGRESS_EVERY == 0) {
+                    System.out.printf("  ... %d movies%n", id);
+                }
+            }
+            json.writeEndArray();
+        }
+    }
+
+    /**
+     * Streams a JSON object mapping movie ID to its reviews. Review counts follow a Zipfian
+     * distribution over a shuffled popularity rank, rounded stochastically so the total lands
+     * close to the target. Movies without reviews are left out, as in mock-reviews.json.
+     *
+     * @return Number of reviews written
+     */
+    long writeReviews(OutputStream stream, long targetReviews) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed + 1);
+        double harmonic = 0;
+        for (int rank = 1; rank <= movieCount; rank++) {
+            harmonic += 1 / Math.pow(rank, skew);
+        }
+        long stride = popularityStride(movieCount);
+        long written = 0;
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(stream, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            for (int id = 1; id <= movieCount; id++) {
+                // A stride coprime to movieCount permutes IDs onto ranks without an index array
+                long rank = ((id - 1) * stride) % movieCount + 1;
+                double expected = targetReviews / (Math.pow(rank, skew) * harmonic);
+                long count = (long) expected + (random.nextDouble() < expected - Math.floor(expected) ? 1 : 0);
+                if (count == 0) {
+                    continue;
+                }
+                json.writeArrayFieldStart(Integer.toString(id));
+                for (long i = 0; i < count; i++) {
+                    json.writeStartObject();
+                    json.writeStringField("userName", USER_PREFIXES[random.nextInt(USER_PREFIXES.length)] + random.nextInt(1000));
+                    json.writeStringField("avatarEmoji", AVATARS[random.nextInt(AVATARS.length)]);
+                    json.writeNumberField("rating", (1 + random.nextInt(9)) / 2.0 + 0.5);
+                    json.writeStringField("comment", COMMENTS[random.nextInt(COMMENTS.length)]);
+                    json.writeEndObject();
+                }
+                json.writeEndArray();
+                long before = written;
+                written += count;
+                if (written / PROGRESS_EVERY != before / PROGRESS_EVERY) {
+                    System.out.printf("  ... %d reviews%n", written);
+                }
+            }
+            json.writeEndObject();
+        }
+        return written;
+    }
+
+    private String title(SplittableRandom random, int id) {
+        String title = TITLE_OPENERS[random.nextInt(TITLE_OPENERS.length)] + " "
+                + TITLE_ADJECTIVES[random.nextInt(TITLE_ADJECTIVES.length)] + " "
+                + TITLE_NOUNS[random.nextInt(TITLE_NOUNS.length)];
+        // Keep titles distinct at scale while most stay short and searchable
+        return id % 3 == 0 ? title + " " + toRoman(1 + id % 12) : title;
+    }
+
+    private static long popularityStride(int movieCount) {
+        long stride = Math.max(1, (long) (movieCount * 0.6180339887));
+        while (gcd(stride, movieCount) != 1) {
+            stride++;
+        }
+        return stride;
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    private static String toRoman(int number) {
+        String[] numerals = {"M", "CM", "D", "CD", "C", "XC", "L", "XL", "X", "IX", "V", "IV", "I"};
+        int[] values = {1000, 900, 500, 400, 100, 90, 50, 40, 10, 9, 5, 4, 1};
+        StringBuilder roman = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            while (number >= values[i]) {
+                roman.append(numerals[i]);
+                number -= values[i];
+            }
+        }
+        return roman.toString();
+    }
+
+    /**
+     * Samples ranks 0..n-1 with probability proportional to 1/(rank+1)^skew by binary search
+     * over the cumulative distribution.
+     */
+    static class ZipfSampler {
+        private final double[] cumulative;
+
+        ZipfSampler(int n, double skew) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int rank = 0; rank < n; rank++) {
+                sum += 1 / Math.pow(rank + 1, skew);
+                cumulative[rank] = sum;
+            }
+            for (int rank = 0; rank < n; rank++) {
+                cumulative[rank] /= sum;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            int rank = index >= 0 ? index : -index - 1;
+            return Math.min(rank, cumulative.length - 1);
+        }
+    }
+}
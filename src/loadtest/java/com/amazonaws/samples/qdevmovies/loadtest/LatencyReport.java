@@ -0,0 +1,98 @@
+package com.amazonaws.samples.qdevmovies.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint latency histograms (HdrHistogram, 3 significant digits, up to one minute) plus
+ * error counts, safe to record into from the HTTP client's completion threads.
+ */
+class LatencyReport {
+    private static final long MAX_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long latencyNanos, boolean ok) {
+        histograms.computeIfAbsent(endpoint, e -> new ConcurrentHistogram(MAX_TRACKABLE_NANOS, 3))
+                .recordValue(Math.min(latencyNanos, MAX_TRACKABLE_NANOS));
+        if (!ok) {
+            errors.computeIfAbsent(endpoint, e -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * @return One histogram per endpoint plus an "all" histogram, endpoints sorted by name
+     */
+    private Map<String, Histogram> withTotal() {
+        Map<String, Histogram> all = new TreeMap<>(histograms);
+        Histogram total = new Histogram(MAX_TRACKABLE_NANOS, 3);
+        for (Histogram histogram : histograms.values()) {
+            total.add(histogram);
+        }
+        all.put("all", total);
+        return all;
+    }
+
+    private long errorCount(String endpoint) {
+        if ("all".equals(endpoint)) {
+            long sum = 0;
+            for (LongAdder count : errors.values()) {
+                sum += count.sum();
+            }
+            return sum;
+        }
+        LongAdder count = errors.get(endpoint);
+        return count != null ? count.sum() : 0;
+    }
+
+    String format(Duration duration) {
+        StringBuilder out = new StringBuilder(String.format("%n%-10s %9s %7s %10s", "endpoint", "requests", "errors", "req/s"));
+        for (double percentile : PERCENTILES) {
+            out.append(String.format(" %9s", "p" + percentile));
+        }
+        out.append(String.format(" %9s  (latency in ms)%n", "max"));
+        for (Map.Entry<String, Histogram> entry : withTotal().entrySet()) {
+            Histogram histogram = entry.getValue();
+            out.append(String.format("%-10s %9d %7d %10.1f", entry.getKey(), histogram.getTotalCount(),
+                    errorCount(entry.getKey()), histogram.getTotalCount() / (duration.toNanos() / 1e9)));
+            for (double percentile : PERCENTILES) {
+                out.append(String.format(" %9.2f", histogram.getValueAtPercentile(percentile) / 1e6));
+            }
+            out.append(String.format(" %9.2f%n", histogram.getMaxValue() / 1e6));
+        }
+        return out.toString();
+    }
+
+    Map<String, Object> toMap(Duration duration, int rate) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("offeredRate", rate);
+        result.put("durationSeconds", duration.getSeconds());
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (Map.Entry<String, Histogram> entry : withTotal().entrySet()) {
+            Histogram histogram = entry.getValue();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("requests", histogram.getTotalCount());
+            stats.put("errors", errorCount(entry.getKey()));
+            stats.put("throughput", histogram.getTotalCount() / (duration.toNanos() / 1e9));
+            Map<String, Double> latencies = new LinkedHashMap<>();
+            for (double percentile : PERCENTILES) {
+                latencies.put("p" + percentile, histogram.getValueAtPercentile(percentile) / 1e6);
+            }
+            latencies.put("max", histogram.getMaxValue() / 1e6);
+            stats.put("latencyMillis", latencies);
+            endpoints.put(entry.getKey(), stats);
+        }
+        result.put("endpoints", endpoints);
+        return result;
+    }
+}
@@ -0,0 +1,234 @@
+package com.amazonaws.samples.qdevmovies.loadtest;
+
+import com.amazonaws.samples.qdevmovies.movies.MoviesApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model HTTP load generator for the full Spring stack.
+ * Requests are fired on a fixed schedule whether or not earlier ones have finished, and each
+ * latency is measured from the request's intended start time, so a stalled server shows up as
+ * queueing delay instead of silently lowering the offered load (coordinated omission).
+ *
+ * <p>Endpoints: search (a rotation of /movies/search queries), list (the /movies page), genres and
+ * details (/movies/{id}/details for every movie). Boots MoviesApplication on a random port unless --url points at a running instance.
+ * Options: --rate=requests/sec, --duration=30s, --warmup=5s, --mix=search:50,list:20,genres:10,details:20,
+ * --url=http://host:port, --report=path/to/result.json
+ */
+public class LoadTest {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final String[] SEARCH_QUERIES = {
+        "/movies/search?name=the",
+        "/movies/search?genre=drama",
+        "/movies/search?name=the&genre=crime",
+        "/movies/search?minYear=1990&minRating=4.5",
+        "/movies/search?director=nolan",
+        "/movies/search?limit=5",
+    };
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int rate = Integer.parseInt(options.getOrDefault("rate", "200"));
+        Duration duration = parseDuration(options.getOrDefault("duration", "30s"));
+        Duration warmup = parseDuration(options.getOrDefault("warmup", "5s"));
+        Map<String, Integer> mix = parseMix(options.getOrDefault("mix", "search:50,list:20,genres:10,details:20"));
+
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.get("url");
+        if (baseUrl == null) {
+            context = SpringApplication.run(MoviesApplication.class,
+                    "--server.port=0",
+                    "--logging.level.root=WARN",
+                    "--logging.level.com.amazonaws.samples.qdevmovies=WARN");
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+
+        try {
+            HttpClient client = HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build();
+            List<String> detailPaths = detailPaths(client, baseUrl);
+            RequestMix requests = new RequestMix(mix, detailPaths);
+            System.out.printf("Ahoy! Driving %s at %d req/s (%s warmup, %s measured), mix %s%n",
+                    baseUrl, rate, warmup, duration, mix);
+
+            run(client, baseUrl, requests, rate, warmup, new LatencyReport());
+            LatencyReport report = new LatencyReport();
+            run(client, baseUrl, requests, rate, duration, report);
+
+            System.out.print(report.format(duration));
+            String reportPath = options.get("report");
+            if (reportPath != null) {
+                File reportFile = new File(reportPath);
+                if (reportFile.getParentFile() != null) {
+                    reportFile.getParentFile().mkdirs();
+                }
+                new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(reportFile, report.toMap(duration, rate));
+                System.out.println("Report written to " + reportFile);
+            }
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    /**
+     * Fires requests at the fixed rate for the given duration, then waits for stragglers.
+     */
+    private static void run(HttpClient client, String baseUrl, RequestMix requests, int rate,
+                            Duration duration, LatencyReport report) {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long total = duration.toNanos() / intervalNanos;
+        ConcurrentLinkedQueue<CompletableFuture<?>> inFlight = new ConcurrentLinkedQueue<>();
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long intendedStart = start + i * intervalNanos;
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            RequestMix.Request request = requests.next();
+            HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(baseUrl + request.path))
+                    .timeout(REQUEST_TIMEOUT)
+                    .GET()
+                    .build();
+            CompletableFuture<?> future = client.sendAsync(httpRequest, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> {
+                        long latency = System.nanoTime() - intendedStart;
+                        boolean ok = error == null && response.statusCode() < 400;
+                        report.record(request.endpoint, latency, ok);
+                        return null;
+                    });
+            inFlight.add(future);
+            // Drop finished futures so a long run doesn't hold them all
+            while (!inFlight.isEmpty() && inFlight.peek().isDone()) {
+                inFlight.poll();
+            }
+        }
+        CompletableFuture.allOf(inFlight.toArray(new CompletableFuture<?>[0])).join();
+    }
+
+    private static List<String> detailPaths(HttpClient client, String baseUrl) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/movies/search?limit=100")).GET().build();
+        JsonNode body = new ObjectMapper().readTree(client.send(request, HttpResponse.BodyHandlers.ofString()).body());
+        List<String> paths = new ArrayList<>();
+        for (JsonNode movie : body.path("movies")) {
+            paths.add("/movies/" + movie.path("id").asLong() + "/details");
+        }
+        if (paths.isEmpty()) {
+            throw new IllegalStateException("No movies found at " + baseUrl);
+        }
+        return paths;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int equals = arg.indexOf('=');
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+
+    static Duration parseDuration(String value) {
+        String trimmed = value.trim().toLowerCase();
+        if (trimmed.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(trimmed.substring(0, trimmed.length() - 2)));
+        }
+        if (trimmed.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+        }
+        if (trimmed.endsWith("s")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        return Duration.ofSeconds(Long.parseLong(trimmed));
+    }
+
+    static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] weight = part.split(":");
+            String endpoint = weight[0].trim();
+            if (!RequestMix.ENDPOINTS.contains(endpoint)) {
+                throw new IllegalArgumentException("Unknown endpoint in mix: " + endpoint + ", expected one of " + RequestMix.ENDPOINTS);
+            }
+            mix.put(endpoint, weight.length > 1 ? Integer.parseInt(weight[1].trim()) : 1);
+        }
+        return mix;
+    }
+
+    /**
+     * Picks the next request by weighted endpoint. Seeded so repeated runs offer the same load.
+     */
+    static class RequestMix {
+        static final List<String> ENDPOINTS = Arrays.asList("search", "genres", "details", "list");
+
+        private final Random random = new Random(42);
+        private final String[] endpoints;
+        private final int[] cumulativeWeights;
+        private final List<String> detailPaths;
+        private int nextSearch;
+
+        RequestMix(Map<String, Integer> weights, List<String> detailPaths) {
+            this.endpoints = weights.keySet().toArray(new String[0]);
+            this.cumulativeWeights = new int[endpoints.length];
+            int sum = 0;
+            for (int i = 0; i < endpoints.length; i++) {
+                sum += weights.get(endpoints[i]);
+                cumulativeWeights[i] = sum;
+            }
+            this.detailPaths = detailPaths;
+        }
+
+        Request next() {
+            int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            int i = 0;
+            while (pick >= cumulativeWeights[i]) {
+                i++;
+            }
+            switch (endpoints[i]) {
+                case "search":
+                    nextSearch = (nextSearch + 1) % SEARCH_QUERIES.length;
+                    return new Request("search", SEARCH_QUERIES[nextSearch]);
+                case "genres":
+                    return new Request("genres", "/movies/genres");
+                case "details":
+                    return new Request("details", detailPaths.get(random.nextInt(detailPaths.size())));
+                default:
+                    return new Request("list", "/movies");
+            }
+        }
+
+        static class Request {
+            final String endpoint;
+            final String path;
+
+            Request(String endpoint, String path) {
+                this.endpoint = endpoint;
+                this.path = path;
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Answers conditional GETs on the read endpoints before any search or rendering runs.
+ * The strong ETag is derived from the catalog version and the normalized request (path, sorted
+ * non-empty query parameters, the NDJSON variant and whether gzip is accepted), so repeat polls of
+ * an unchanged catalog get a 304 with no body. Gzip and identity bodies are different
+ * representations, so they never share a strong ETag.
+ * The ETag is only sent once the response turns out to be a success: by {@link CatalogETagAdvice}
+ * for JSON bodies and by {@link #postHandle} for rendered views. Error bodies and responses the
+ * handler marked no-store never carry one, so a client can't revalidate its way into keeping an
+ * error or a degraded fallback. Streamed NDJSON commits its headers
+ * before the search has finished, so it carries none either.
+ */
+public class CatalogETagInterceptor implements HandlerInterceptor {
+    private static final Logger logger = LogManager.getLogger(CatalogETagInterceptor.class);
+
+    /** Request attribute holding the ETag a successful response to the request may carry */
+    static final String ETAG_ATTRIBUTE = CatalogETagInterceptor.class.getName() + ".etag";
+
+    private final MovieService movieService;
+    private final ObjectProvider<ReviewService> reviewService;
+
+    public CatalogETagInterceptor(MovieService movieService, ObjectProvider<ReviewService> reviewService) {
+        this.movieService = movieService;
+        this.reviewService = reviewService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return true;
+        }
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            // Already validated on the initial dispatch of an async handler
+            return true;
+        }
+        String catalogVersion = movieService.getCatalogVersion();
+        if (catalogVersion == null) {
+            return true;
+        }
+
+        String version = catalogVersion;
+        if (request.getRequestURI().endsWith("/details")) {
+            // The details page also renders reviews, so their data version is part of the validator
+            ReviewService reviews = reviewService.getIfAvailable();
+            version = version + ":" + (reviews != null ? reviews.getDataVersion() : "none");
+        }
+
+        String etag = etag(version, normalizedQuery(request));
+        response.addHeader("Vary", "Accept, Accept-Encoding");
+        // Only successful responses ever carried this ETag, so a match means the client's copy is good
+        if (matches(request.getHeaders(HttpHeaders.IF_NONE_MATCH), etag)) {
+            logger.debug("Ahoy! {} not modified since ETag {}", request.getRequestURI(), etag);
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            response.setHeader(HttpHeaders.ETAG, etag);
+            return false;
+        }
+        request.setAttribute(ETAG_ATTRIBUTE, etag);
+        return true;
+    }
+
+    /**
+     * Adds the ETag to a successfully rendered view; JSON bodies are already written by now.
+     */
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) {
+        if (modelAndView != null && !response.isCommitted()) {
+            addETag(request, response);
+        }
+    }
+
+    /**
+     * Sends the ETag computed for the request, if any, provided the response is a success that the
+     * handler didn't mark no-store, as it does for degraded fallback pages.
+     */
+    static void addETag(HttpServletRequest request, HttpServletResponse response) {
+        Object etag = request.getAttribute(ETAG_ATTRIBUTE);
+        String cacheControl = response.getHeader(HttpHeaders.CACHE_CONTROL);
+        boolean noStore = cacheControl != null && cacheControl.contains("no-store");
+        if (etag != null && !noStore && response.getStatus() >= 200 && response.getStatus() < 300) {
+            response.setHeader(HttpHeaders.ETAG, (String) etag);
+        }
+    }
+
+    /**
+     * @return Whether any If-None-Match header lists the ETag, weakly or strongly, or is "*"
+     */
+    static boolean matches(Enumeration<String> ifNoneMatch, String etag) {
+        while (ifNoneMatch != null && ifNoneMatch.hasMoreElements()) {
+            for (String candidate : ifNoneMatch.nextElement().split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Path, sorted non-empty trimmed query parameters and response variant as one string.
+     *         Names and values are URL-encoded, so no value can pass for another parameter.
+     */
+    static String normalizedQuery(HttpServletRequest request) {
+        StringBuilder query = new StringBuilder(request.getRequestURI());
+        Map<String, String[]> sorted = new TreeMap<>(request.getParameterMap());
+        for (Map.Entry<String, String[]> parameter : sorted.entrySet()) {
+            for (String value : parameter.getValue()) {
+                String trimmed = value == null ? "" : value.trim();
+                if (!trimmed.isEmpty()) {
+                    query.append('&').append(encode(parameter.getKey())).append('=').append(encode(trimmed));
+                }
+            }
+        }
+        String accept = request.getHeader("Accept");
+        if (accept != null && accept.contains(MovieSearchController.NDJSON_VALUE)) {
+            query.append("#ndjson");
+        }
+        if (PrecompressedResponses.acceptsGzip(request.getHeader("Accept-Encoding"))) {
+            query.append("#gzip");
+        }
+        return query.toString();
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException("UTF-8 is required by every Java platform", e);
+        }
+    }
+
+    static String etag(String version, String normalizedQuery) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(normalizedQuery.getBytes(StandardCharsets.UTF_8));
+            StringBuilder etag = new StringBuilder("\"").append(version).append('-');
+            for (int i = 0; i < 12; i++) {
+                etag.append(String.format("%02x", hash[i]));
+            }
+            return etag.append('"').toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java platform", e);
+        }
+    }
+}
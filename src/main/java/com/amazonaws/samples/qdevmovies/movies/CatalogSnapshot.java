@@ -0,0 +1,223 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary snapshot of the movie catalog, read through a memory-mapped file.
+ * The header records the format version and the size and modification time of the JSON source it
+ * was written from, so a snapshot is only used while that source is unchanged, and telling costs a
+ * file stat rather than a read of the JSON. Several JVMs on one box map the same file and share
+ * its pages in the OS page cache. The snapshot is trusted like the JSON itself, so it belongs in a
+ * directory only the app can write to.
+ *
+ * <pre>
+ * int magic, int version, long sourceSize, long sourceModified, int count
+ * count x { long id, int year, int duration, double imdbRating,
+ *           4 x (int length, UTF-8 bytes) for movieName, director, genre, description }
+ * </pre>
+ */
+public class CatalogSnapshot {
+    private static final Logger logger = LogManager.getLogger(CatalogSnapshot.class);
+
+    static final int MAGIC = 0x51444d56; // "QDMV"
+    static final int VERSION = 2;
+    private static final int HEADER_BYTES = Integer.BYTES * 3 + Long.BYTES * 2;
+    /** A record with four empty strings */
+    private static final int MIN_RECORD_BYTES = Long.BYTES + Integer.BYTES * 2 + Double.BYTES + Integer.BYTES * 4;
+
+    private final Path path;
+
+    public CatalogSnapshot(Path path) {
+        this.path = path;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Reads the catalog from the snapshot if it exists and was written from the given source.
+     *
+     * @param source Fingerprint of the current JSON source
+     * @return Movies in snapshot order, or null if the snapshot is missing, stale or corrupt
+     */
+    public List<Movie> read(Fingerprint source) {
+        if (!Files.isRegularFile(path)) {
+            logger.info("No catalog snapshot at {}", path);
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                logger.warn("Ignoring catalog snapshot {} with an unknown format", path);
+                return null;
+            }
+            if (!source.equals(new Fingerprint(buffer.getLong(), buffer.getLong()))) {
+                logger.info("Catalog snapshot {} is stale, the JSON source has changed", path);
+                return null;
+            }
+            int count = buffer.getInt();
+            // Checked before allocating, so a corrupt count falls back to the JSON instead of exhausting the heap
+            if (count < 0 || count > buffer.remaining() / MIN_RECORD_BYTES) {
+                throw new IllegalArgumentException("Corrupt movie count " + count);
+            }
+            List<Movie> movies = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long id = buffer.getLong();
+                int year = buffer.getInt();
+                int duration = buffer.getInt();
+                double imdbRating = buffer.getDouble();
+                String movieName = readString(buffer);
+                String director = readString(buffer);
+                String genre = readString(buffer);
+                String description = readString(buffer);
+                movies.add(new Movie(id, movieName, director, year, genre, description, duration, imdbRating));
+            }
+            return movies;
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            logger.warn("Ignoring unreadable catalog snapshot {}: {}", path, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Writes the catalog to a temporary file and moves it into place, so readers never map a
+     * half-written snapshot.
+     *
+     * @param movies Catalog to write
+     * @param source Fingerprint of the JSON source the catalog was loaded from
+     */
+    public void write(List<Movie> movies, Fingerprint source) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putInt(MAGIC).putInt(VERSION).putLong(source.size).putLong(source.lastModified).putInt(movies.size());
+                header.flip();
+                writeFully(channel, header);
+
+                ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+                for (Movie movie : movies) {
+                    byte[][] strings = {
+                        utf8(movie.getMovieName()), utf8(movie.getDirector()),
+                        utf8(movie.getGenre()), utf8(movie.getDescription())
+                    };
+                    int recordBytes = Long.BYTES + Integer.BYTES * 2 + Double.BYTES;
+                    for (byte[] string : strings) {
+                        recordBytes += Integer.BYTES + string.length;
+                    }
+                    if (buffer.remaining() < recordBytes) {
+                        buffer.flip();
+                        writeFully(channel, buffer);
+                        buffer.clear();
+                        if (buffer.capacity() < recordBytes) {
+                            buffer = ByteBuffer.allocate(recordBytes);
+                        }
+                    }
+                    buffer.putLong(movie.getId()).putInt(movie.getYear()).putInt(movie.getDuration()).putDouble(movie.getImdbRating());
+                    for (byte[] string : strings) {
+                        buffer.putInt(string.length).put(string);
+                    }
+                }
+                buffer.flip();
+                writeFully(channel, buffer);
+                channel.force(false);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        logger.info("Wrote catalog snapshot of {} movies to {}", movies.size(), path);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Corrupt string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Size and modification time of a JSON source, cheap to read and changed by any ordinary edit.
+     */
+    public static final class Fingerprint {
+        private final long size;
+        private final long lastModified;
+
+        public Fingerprint(long size, long lastModified) {
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        public static Fingerprint of(Path file) throws IOException {
+            return new Fingerprint(Files.size(file), Files.getLastModifiedTime(file).toMillis());
+        }
+
+        /**
+         * Reads the fingerprint of a classpath resource from its connection's metadata, e.g. the
+         * jar entry's size and time, without reading the resource itself.
+         *
+         * @return The fingerprint, or null if the connection doesn't know the size or time
+         */
+        public static Fingerprint of(URL resource) throws IOException {
+            URLConnection connection = resource.openConnection();
+            long size = connection.getContentLengthLong();
+            long lastModified = connection.getLastModified();
+            return size >= 0 && lastModified > 0 ? new Fingerprint(size, lastModified) : null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Fingerprint)) {
+                return false;
+            }
+            Fingerprint other = (Fingerprint) o;
+            return size == other.size && lastModified == other.lastModified;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(size) * 31 + Long.hashCode(lastModified);
+        }
+
+        @Override
+        public String toString() {
+            return size + " bytes, modified " + lastModified;
+        }
+    }
+}
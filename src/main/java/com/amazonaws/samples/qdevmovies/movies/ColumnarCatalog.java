@@ -0,0 +1,181 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Struct-of-arrays copy of the catalog, addressed by movie ordinal.
+ * Numeric fields live in primitive arrays and genre/director are dictionary-encoded to int codes,
+ * so range filters run as tight loops over contiguous memory instead of chasing Movie pointers.
+ */
+public class ColumnarCatalog {
+    private final int size;
+    private final long[] ids;
+    private final int[] years;
+    private final int[] durations;
+    private final double[] imdbRatings;
+    private final int[] genreCodes;
+    private final int[] directorCodes;
+    private final String[] genreDictionary;
+    private final String[] directorDictionary;
+    /** Search keys of the directors, by code, so a director filter folds no names per query */
+    private final String[] directorKeys;
+
+    public ColumnarCatalog(List<Movie> movies) {
+        this.size = movies.size();
+        this.ids = new long[size];
+        this.years = new int[size];
+        this.durations = new int[size];
+        this.imdbRatings = new double[size];
+        this.genreCodes = new int[size];
+        this.directorCodes = new int[size];
+
+        Map<String, Integer> genres = new HashMap<>();
+        Map<String, Integer> directors = new HashMap<>();
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            Movie movie = movies.get(ordinal);
+            ids[ordinal] = movie.getId();
+            years[ordinal] = movie.getYear();
+            durations[ordinal] = movie.getDuration();
+            imdbRatings[ordinal] = movie.getImdbRating();
+            genreCodes[ordinal] = encode(genres, movie.getGenre());
+            directorCodes[ordinal] = encode(directors, movie.getDirector());
+        }
+        this.genreDictionary = decodeTable(genres);
+        this.directorDictionary = decodeTable(directors);
+        this.directorKeys = new String[directorDictionary.length];
+        for (int code = 0; code < directorDictionary.length; code++) {
+            directorKeys[code] = MovieSearchCriteria.searchKey(directorDictionary[code]);
+        }
+    }
+
+    private static int encode(Map<String, Integer> dictionary, String value) {
+        Integer code = dictionary.get(value);
+        if (code == null) {
+            code = dictionary.size();
+            dictionary.put(value, code);
+        }
+        return code;
+    }
+
+    private static String[] decodeTable(Map<String, Integer> dictionary) {
+        String[] table = new String[dictionary.size()];
+        for (Map.Entry<String, Integer> entry : dictionary.entrySet()) {
+            table[entry.getValue()] = entry.getKey();
+        }
+        return table;
+    }
+
+    /**
+     * Narrows the candidates to movies within the criteria's year, rating and duration ranges
+     * and whose director contains the criteria's director term (case-insensitive).
+     *
+     * @param criteria Search criteria; unset bounds are ignored
+     * @param candidates Candidate ordinals, or null for the whole catalog
+     * @return The narrowed bitmap (the candidates bitmap itself when one was given)
+     */
+    public BitSet filter(MovieSearchCriteria criteria, BitSet candidates) {
+        int minYear = criteria.getMinYear() != null ? criteria.getMinYear() : Integer.MIN_VALUE;
+        int maxYear = criteria.getMaxYear() != null ? criteria.getMaxYear() : Integer.MAX_VALUE;
+        double minRating = criteria.getMinRating() != null ? criteria.getMinRating() : Double.NEGATIVE_INFINITY;
+        int maxDuration = criteria.getMaxDuration() != null ? criteria.getMaxDuration() : Integer.MAX_VALUE;
+        boolean[] directorMask = criteria.hasDirector() ? directorMask(MovieSearchCriteria.searchKey(criteria.getDirector())) : null;
+
+        if (candidates == null) {
+            BitSet matches = new BitSet(size);
+            for (int ordinal = 0; ordinal < size; ordinal++) {
+                if (accepts(ordinal, minYear, maxYear, minRating, maxDuration, directorMask)) {
+                    matches.set(ordinal);
+                }
+            }
+            return matches;
+        }
+        for (int ordinal = candidates.nextSetBit(0); ordinal >= 0; ordinal = candidates.nextSetBit(ordinal + 1)) {
+            if (!accepts(ordinal, minYear, maxYear, minRating, maxDuration, directorMask)) {
+                candidates.clear(ordinal);
+            }
+        }
+        return candidates;
+    }
+
+    private boolean accepts(int ordinal, int minYear, int maxYear, double minRating, int maxDuration, boolean[] directorMask) {
+        int year = years[ordinal];
+        return year >= minYear
+                && year <= maxYear
+                && imdbRatings[ordinal] >= minRating
+                && durations[ordinal] <= maxDuration
+                && (directorMask == null || directorMask[directorCodes[ordinal]]);
+    }
+
+    /**
+     * Resolves a director term against the dictionary once, so the per-movie check is an array read.
+     */
+    private boolean[] directorMask(String term) {
+        boolean[] mask = new boolean[directorKeys.length];
+        for (int code = 0; code < directorKeys.length; code++) {
+            mask[code] = directorKeys[code].contains(term);
+        }
+        return mask;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getId(int ordinal) {
+        return ids[ordinal];
+    }
+
+    public int getYear(int ordinal) {
+        return years[ordinal];
+    }
+
+    public int getDuration(int ordinal) {
+        return durations[ordinal];
+    }
+
+    public double getImdbRating(int ordinal) {
+        return imdbRatings[ordinal];
+    }
+
+    public String getGenre(int ordinal) {
+        return genreDictionary[genreCodes[ordinal]];
+    }
+
+    public String getDirector(int ordinal) {
+        return directorDictionary[directorCodes[ordinal]];
+    }
+
+    public int getGenreCode(int ordinal) {
+        return genreCodes[ordinal];
+    }
+
+    public int getDirectorCode(int ordinal) {
+        return directorCodes[ordinal];
+    }
+
+    public String getGenreByCode(int code) {
+        return genreDictionary[code];
+    }
+
+    public String getDirectorByCode(int code) {
+        return directorDictionary[code];
+    }
+
+    public int getDirectorCount() {
+        return directorDictionary.length;
+    }
+
+    public int getGenreCount() {
+        return genreDictionary.length;
+    }
+
+    /**
+     * @return Approximate heap held by the primitive columns, excluding dictionary strings
+     */
+    public long estimateColumnBytes() {
+        return (long) size * (Long.BYTES + Integer.BYTES * 4 + Double.BYTES);
+    }
+}
@@ -0,0 +1,401 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index over the titles and descriptions of a fixed list of movies, scored with BM25.
+ * Text is lowercased, split at anything that isn't a letter or digit and stripped of common
+ * English stop words. Title words count {@link #TITLE_WEIGHT} times, so a query word in the title
+ * outweighs one in the description. Each term's postings are stored as varint-encoded ordinal gaps
+ * and term frequencies in one shared byte array.
+ * A query keeps its best hits in a bounded heap and prunes with MaxScore: each term's best possible
+ * score is known from the build, so once the heap is full, terms that can't lift a movie past the
+ * weakest hit on their own stop driving the scan. They are only consulted for movies the stronger
+ * terms already found, and the scan stops when the stronger terms run out.
+ */
+public class FullTextIndex {
+    /** Most hits a query returns; deeper results aren't worth ranking */
+    public static final int MAX_HITS = 1000;
+    static final int TITLE_WEIGHT = 3;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "from", "has", "have", "he",
+            "her", "his", "in", "into", "is", "it", "its", "of", "on", "or", "she", "that", "the", "their",
+            "them", "they", "this", "to", "was", "were", "who", "will", "with"));
+
+    private final Map<String, Integer> termIds;
+    private final byte[] postings;
+    private final int[] postingStarts;
+    private final double[] idfs;
+    private final double[] maxScores;
+    /** BM25 length normalization per ordinal: k1 * (1 - b + b * length / average length) */
+    private final float[] norms;
+
+    /**
+     * @param movies Movies indexed by ordinal
+     */
+    public FullTextIndex(List<Movie> movies) {
+        Map<String, Integer> ids = new HashMap<>();
+        List<IntList> building = new ArrayList<>();
+        int[] lengths = new int[movies.size()];
+        long totalLength = 0;
+        Map<Integer, Integer> frequencies = new HashMap<>();
+        for (int ordinal = 0; ordinal < movies.size(); ordinal++) {
+            Movie movie = movies.get(ordinal);
+            frequencies.clear();
+            for (String token : tokenize(movie.getMovieName())) {
+                frequencies.merge(ids.computeIfAbsent(token, t -> newTerm(building)), TITLE_WEIGHT, Integer::sum);
+                lengths[ordinal] += TITLE_WEIGHT;
+            }
+            for (String token : tokenize(movie.getDescription())) {
+                frequencies.merge(ids.computeIfAbsent(token, t -> newTerm(building)), 1, Integer::sum);
+                lengths[ordinal]++;
+            }
+            for (Map.Entry<Integer, Integer> entry : frequencies.entrySet()) {
+                IntList list = building.get(entry.getKey());
+                list.add(ordinal);
+                list.add(entry.getValue());
+            }
+            totalLength += lengths[ordinal];
+        }
+
+        double averageLength = movies.isEmpty() ? 1 : Math.max(1, (double) totalLength / movies.size());
+        this.norms = new float[movies.size()];
+        for (int ordinal = 0; ordinal < movies.size(); ordinal++) {
+            norms[ordinal] = (float) (K1 * (1 - B + B * lengths[ordinal] / averageLength));
+        }
+
+        this.termIds = ids;
+        this.postingStarts = new int[building.size() + 1];
+        this.idfs = new double[building.size()];
+        this.maxScores = new double[building.size()];
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int term = 0; term < building.size(); term++) {
+            IntList list = building.get(term);
+            int documentFrequency = list.size() / 2;
+            idfs[term] = Math.log(1 + (movies.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+            postingStarts[term] = out.size();
+            int previous = 0;
+            for (int i = 0; i < list.size(); i += 2) {
+                int ordinal = list.get(i);
+                int frequency = list.get(i + 1);
+                writeVarint(out, ordinal - previous);
+                writeVarint(out, frequency);
+                previous = ordinal;
+                maxScores[term] = Math.max(maxScores[term], score(idfs[term], frequency, norms[ordinal]));
+            }
+        }
+        postingStarts[building.size()] = out.size();
+        this.postings = out.toByteArray();
+    }
+
+    private static int newTerm(List<IntList> building) {
+        building.add(new IntList());
+        return building.size() - 1;
+    }
+
+    /**
+     * Lowercases the text, splits it into words and drops the stop words.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        String key = MovieSearchCriteria.searchKey(text);
+        int start = -1;
+        for (int i = 0; i <= key.length(); i++) {
+            boolean wordChar = i < key.length() && Character.isLetterOrDigit(key.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = key.substring(start, i);
+                if (!STOP_WORDS.contains(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static double score(double idf, int frequency, float norm) {
+        return idf * frequency * (K1 + 1) / (frequency + norm);
+    }
+
+    /**
+     * Finds the movies that best match the query, best first.
+     *
+     * @param query Free text; unknown words and stop words are ignored
+     * @param limit Most hits to return
+     * @param accepted Ordinals allowed by the other filters, or null to allow every movie
+     * @return Ordinals of the best hits by descending score, ties by ascending ordinal
+     */
+    public int[] search(String query, int limit, BitSet accepted) {
+        List<Cursor> cursors = cursorsFor(query);
+        if (cursors.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+        // Weakest terms first, so the non-essential ones are always a prefix of the list
+        cursors.sort((a, c) -> Double.compare(a.maxScore, c.maxScore));
+        int count = cursors.size();
+        double[] boundBelow = new double[count + 1];
+        for (int i = 0; i < count; i++) {
+            boundBelow[i + 1] = boundBelow[i] + cursors.get(i).maxScore;
+        }
+
+        TopHits hits = new TopHits(limit);
+        int firstEssential = 0;
+        while (true) {
+            int ordinal = Integer.MAX_VALUE;
+            for (int i = firstEssential; i < count; i++) {
+                ordinal = Math.min(ordinal, cursors.get(i).ordinal);
+            }
+            if (ordinal == Integer.MAX_VALUE) {
+                break;
+            }
+
+            double score = 0;
+            for (int i = firstEssential; i < count; i++) {
+                Cursor cursor = cursors.get(i);
+                if (cursor.ordinal == ordinal) {
+                    score += cursor.score(norms[ordinal]);
+                    cursor.next();
+                }
+            }
+            if (accepted != null && !accepted.get(ordinal)) {
+                continue;
+            }
+            // The weaker terms only count for movies the stronger ones found, and only while they could still matter
+            for (int i = firstEssential - 1; i >= 0 && hits.admits(score + boundBelow[i + 1]); i--) {
+                Cursor cursor = cursors.get(i);
+                cursor.advanceTo(ordinal);
+                if (cursor.ordinal == ordinal) {
+                    score += cursor.score(norms[ordinal]);
+                }
+            }
+            if (hits.offer(ordinal, score)) {
+                while (firstEssential < count && !hits.admits(boundBelow[firstEssential + 1])) {
+                    firstEssential++;
+                }
+            }
+        }
+        return hits.ranked();
+    }
+
+    /**
+     * Finds every movie containing at least one of the query's words, unranked.
+     *
+     * @param query Free text; unknown words and stop words are ignored
+     * @param size Number of movies in the catalog
+     * @return Matching ordinals
+     */
+    public BitSet matches(String query, int size) {
+        BitSet matches = new BitSet(size);
+        for (Cursor cursor : cursorsFor(query)) {
+            for (; cursor.ordinal != Integer.MAX_VALUE; cursor.next()) {
+                matches.set(cursor.ordinal);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Scores one movie against the query without any pruning, e.g. to check ranked results.
+     */
+    double score(String query, int ordinal) {
+        double score = 0;
+        for (Cursor cursor : cursorsFor(query)) {
+            cursor.advanceTo(ordinal);
+            if (cursor.ordinal == ordinal) {
+                score += cursor.score(norms[ordinal]);
+            }
+        }
+        return score;
+    }
+
+    private List<Cursor> cursorsFor(String query) {
+        List<Cursor> cursors = new ArrayList<>();
+        for (String token : new LinkedHashSet<>(tokenize(query))) {
+            Integer term = termIds.get(token);
+            if (term != null) {
+                cursors.add(new Cursor(this, term));
+            }
+        }
+        return cursors;
+    }
+
+    /**
+     * @return Number of distinct terms
+     */
+    public int termCount() {
+        return idfs.length;
+    }
+
+    /**
+     * @return Bytes of encoded postings
+     */
+    public int postingBytes() {
+        return postings.length;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    /**
+     * Walks one term's postings in ordinal order.
+     */
+    private static final class Cursor {
+        private final byte[] postings;
+        private final int end;
+        private final double idf;
+        private final double maxScore;
+        private int position;
+        private int ordinal;
+        private int frequency;
+
+        Cursor(FullTextIndex index, int term) {
+            this.postings = index.postings;
+            this.position = index.postingStarts[term];
+            this.end = index.postingStarts[term + 1];
+            this.idf = index.idfs[term];
+            this.maxScore = index.maxScores[term];
+            this.ordinal = 0;
+            next();
+        }
+
+        void next() {
+            if (position >= end) {
+                ordinal = Integer.MAX_VALUE;
+                return;
+            }
+            // The first gap is from ordinal zero, which the constructor sets up
+            ordinal += readVarint();
+            frequency = readVarint();
+        }
+
+        void advanceTo(int target) {
+            while (ordinal < target) {
+                next();
+            }
+        }
+
+        double score(float norm) {
+            return FullTextIndex.score(idf, frequency, norm);
+        }
+
+        private int readVarint() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = postings[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    /**
+     * Bounded min-heap of the best hits so far; the root is the weakest hit, which a newcomer has
+     * to beat. Ordinals arrive in ascending order, so a newcomer that only ties the weakest hit
+     * ranks below it and is turned away.
+     */
+    private static final class TopHits {
+        private final int[] ordinals;
+        private final double[] scores;
+        private int size;
+
+        TopHits(int limit) {
+            this.ordinals = new int[Math.min(limit, MAX_HITS)];
+            this.scores = new double[ordinals.length];
+        }
+
+        /**
+         * @return Whether a movie scoring at most this much could still make the list
+         */
+        boolean admits(double score) {
+            return size < ordinals.length || score > scores[0];
+        }
+
+        boolean offer(int ordinal, double score) {
+            if (size < ordinals.length) {
+                ordinals[size] = ordinal;
+                scores[size] = score;
+                siftUp(size++);
+                return true;
+            }
+            if (score <= scores[0]) {
+                return false;
+            }
+            ordinals[0] = ordinal;
+            scores[0] = score;
+            siftDown(0);
+            return true;
+        }
+
+        /** Whether the hit at i ranks below the hit at j */
+        private boolean weaker(int i, int j) {
+            return scores[i] < scores[j] || (scores[i] == scores[j] && ordinals[i] > ordinals[j]);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0 && weaker(i, (i - 1) / 2)) {
+                swap(i, (i - 1) / 2);
+                i = (i - 1) / 2;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int weakest = i;
+                for (int child = 2 * i + 1; child <= 2 * i + 2 && child < size; child++) {
+                    if (weaker(child, weakest)) {
+                        weakest = child;
+                    }
+                }
+                if (weakest == i) {
+                    return;
+                }
+                swap(i, weakest);
+                i = weakest;
+            }
+        }
+
+        private void swap(int i, int j) {
+            int ordinal = ordinals[i];
+            ordinals[i] = ordinals[j];
+            ordinals[j] = ordinal;
+            double score = scores[i];
+            scores[i] = scores[j];
+            scores[j] = score;
+        }
+
+        /**
+         * @return The hits, best first; empties the heap
+         */
+        int[] ranked() {
+            int[] ranked = new int[size];
+            for (int i = size - 1; i >= 0; i--) {
+                ranked[i] = ordinals[0];
+                swap(0, --size);
+                siftDown(0);
+            }
+            return ranked;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * BK-tree over the distinct words of a fixed list of keys, for typo-tolerant search.
+ * Every word hangs off its parent at its Levenshtein distance from the parent, so by the triangle
+ * inequality a lookup within k edits of a word at distance d only has to descend into children
+ * d-k to d+k. With k of one or two that prunes most of the tree, and a lookup touches a small
+ * fraction of the dictionary rather than every title.
+ * A multi-word query matches a key when each of its words is within reach of some word of the key;
+ * the key's distance is the sum of those words' closest distances.
+ */
+public class FuzzyTitleIndex {
+    /** Largest edit distance a lookup may ask for; beyond two edits most short words match each other */
+    public static final int MAX_EDITS = 2;
+
+    private final Node root;
+    private final int termCount;
+
+    /**
+     * @param keys Already-normalized (lowercased) keys, indexed by ordinal
+     */
+    public FuzzyTitleIndex(List<String> keys) {
+        // Sorted, so the tree's shape doesn't depend on hash order
+        Map<String, IntList> postings = new TreeMap<>();
+        for (int ordinal = 0; ordinal < keys.size(); ordinal++) {
+            for (String word : words(keys.get(ordinal))) {
+                postings.computeIfAbsent(word, w -> new IntList()).addPosting(ordinal);
+            }
+        }
+        Node tree = null;
+        for (Map.Entry<String, IntList> entry : postings.entrySet()) {
+            Node node = new Node(entry.getKey(), entry.getValue().toArray());
+            if (tree == null) {
+                tree = node;
+            } else {
+                insert(tree, node);
+            }
+        }
+        this.root = tree;
+        this.termCount = postings.size();
+    }
+
+    private static void insert(Node tree, Node node) {
+        Node parent = tree;
+        while (true) {
+            int distance = distance(parent.term, node.term);
+            if (distance >= parent.children.length) {
+                parent.children = Arrays.copyOf(parent.children, distance + 1);
+            }
+            if (parent.children[distance] == null) {
+                parent.children[distance] = node;
+                return;
+            }
+            parent = parent.children[distance];
+        }
+    }
+
+    /**
+     * Splits a normalized key or query into words at anything that isn't a letter or digit.
+     */
+    static List<String> words(String key) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= key.length(); i++) {
+            boolean wordChar = i < key.length() && Character.isLetterOrDigit(key.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(key.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Edits allowed for one query word: none below three characters, one below six, otherwise the
+     * requested maximum. Short words are a few edits away from almost every other short word.
+     */
+    static int editsAllowed(String word, int maxEdits) {
+        int byLength = word.length() < 3 ? 0 : word.length() < 6 ? 1 : MAX_EDITS;
+        return Math.min(Math.min(maxEdits, MAX_EDITS), byLength);
+    }
+
+    /**
+     * Finds every key whose words come within the allowed edits of each query word.
+     *
+     * @param query Already-normalized (lowercased) search term
+     * @param maxEdits Most edits allowed per query word, capped at {@link #MAX_EDITS}
+     * @return Matching ordinals with their distances
+     */
+    public Matches search(String query, int maxEdits) {
+        List<String> queryWords = words(query);
+        if (root == null || queryWords.isEmpty()) {
+            return Matches.NONE;
+        }
+        Map<Integer, Integer> distances = null;
+        for (String word : queryWords) {
+            Map<Integer, Integer> wordDistances = new HashMap<>();
+            collect(word, editsAllowed(word, maxEdits), wordDistances);
+            if (distances == null) {
+                distances = wordDistances;
+            } else {
+                // Keys must match every query word, and their distance adds up
+                distances.keySet().retainAll(wordDistances.keySet());
+                distances.replaceAll((ordinal, distance) -> distance + wordDistances.get(ordinal));
+            }
+            if (distances.isEmpty()) {
+                return Matches.NONE;
+            }
+        }
+
+        int[] ordinals = new int[distances.size()];
+        int count = 0;
+        for (int ordinal : distances.keySet()) {
+            ordinals[count++] = ordinal;
+        }
+        Arrays.sort(ordinals);
+        int[] sortedDistances = new int[ordinals.length];
+        for (int i = 0; i < ordinals.length; i++) {
+            sortedDistances[i] = distances.get(ordinals[i]);
+        }
+        return new Matches(ordinals, sortedDistances);
+    }
+
+    /**
+     * Walks the tree for words within the limit, keeping each key's closest distance.
+     */
+    private void collect(String word, int limit, Map<Integer, Integer> out) {
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            int distance = distance(word, node.term);
+            if (distance <= limit) {
+                for (int ordinal : node.ordinals) {
+                    out.merge(ordinal, distance, Math::min);
+                }
+            }
+            int last = Math.min(distance + limit, node.children.length - 1);
+            for (int d = Math.max(1, distance - limit); d <= last; d++) {
+                if (node.children[d] != null) {
+                    pending.push(node.children[d]);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Levenshtein distance between the two words
+     */
+    static int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char c = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * @return Number of distinct words in the index
+     */
+    public int termCount() {
+        return termCount;
+    }
+
+    /**
+     * Ordinals matched by a lookup, ascending, each with its edit distance.
+     */
+    public static final class Matches {
+        static final Matches NONE = new Matches(new int[0], new int[0]);
+
+        private final int[] ordinals;
+        private final int[] distances;
+
+        Matches(int[] ordinals, int[] distances) {
+            this.ordinals = ordinals;
+            this.distances = distances;
+        }
+
+        /**
+         * Adds exact matches at distance zero, e.g. titles that contain the query outright.
+         *
+         * @param exact Ascending ordinals
+         * @return The combined matches
+         */
+        public Matches withExact(int[] exact) {
+            int[] mergedOrdinals = new int[ordinals.length + exact.length];
+            int[] mergedDistances = new int[mergedOrdinals.length];
+            int i = 0;
+            int j = 0;
+            int count = 0;
+            while (i < ordinals.length || j < exact.length) {
+                if (j == exact.length || (i < ordinals.length && ordinals[i] < exact[j])) {
+                    mergedOrdinals[count] = ordinals[i];
+                    mergedDistances[count++] = distances[i++];
+                } else {
+                    if (i < ordinals.length && ordinals[i] == exact[j]) {
+                        i++;
+                    }
+                    mergedOrdinals[count] = exact[j++];
+                    mergedDistances[count++] = 0;
+                }
+            }
+            return new Matches(Arrays.copyOf(mergedOrdinals, count), Arrays.copyOf(mergedDistances, count));
+        }
+
+        /**
+         * @return Distance of the ordinal, or -1 if it didn't match
+         */
+        public int distanceOf(int ordinal) {
+            int index = Arrays.binarySearch(ordinals, ordinal);
+            return index >= 0 ? distances[index] : -1;
+        }
+
+        public BitSet toBitSet(int size) {
+            BitSet bitmap = new BitSet(size);
+            for (int ordinal : ordinals) {
+                bitmap.set(ordinal);
+            }
+            return bitmap;
+        }
+
+        public int size() {
+            return ordinals.length;
+        }
+    }
+
+    private static final class Node {
+        private final String term;
+        private final int[] ordinals;
+        /** Children by their distance from this node's term; grown as needed */
+        private Node[] children = new Node[0];
+
+        Node(String term, int[] ordinals) {
+            this.term = term;
+            this.ordinals = ordinals;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bitmap index over movie genres, addressed by movie ordinal.
+ * Compound genres such as "Crime/Drama" keep one bitmap per distinct genre string and one per
+ * token ("crime", "drama"), so a genre filter is an OR over the few distinct genres that match
+ * instead of a substring scan over every movie.
+ */
+public class GenreIndex {
+    private static final String TOKEN_SEPARATOR = "/";
+
+    private final int size;
+    private final List<String> genres;
+    private final List<String> genreKeys;
+    private final List<BitSet> genreBitmaps;
+    private final Map<String, BitSet> tokenBitmaps;
+
+    /**
+     * @param genresByOrdinal Raw genre string of each movie, indexed by ordinal
+     */
+    public GenreIndex(List<String> genresByOrdinal) {
+        this.size = genresByOrdinal.size();
+
+        Map<String, BitSet> byGenre = new TreeMap<>();
+        Map<String, BitSet> byToken = new TreeMap<>();
+        for (int ordinal = 0; ordinal < genresByOrdinal.size(); ordinal++) {
+            String genre = genresByOrdinal.get(ordinal);
+            byGenre.computeIfAbsent(genre, g -> new BitSet(size)).set(ordinal);
+            for (String token : tokenize(genre)) {
+                byToken.computeIfAbsent(token, t -> new BitSet(size)).set(ordinal);
+            }
+        }
+
+        List<String> sortedGenres = new ArrayList<>(byGenre.size());
+        List<String> keys = new ArrayList<>(byGenre.size());
+        List<BitSet> bitmaps = new ArrayList<>(byGenre.size());
+        for (Map.Entry<String, BitSet> entry : byGenre.entrySet()) {
+            sortedGenres.add(entry.getKey());
+            keys.add(MovieSearchCriteria.searchKey(entry.getKey()));
+            bitmaps.add(entry.getValue());
+        }
+        this.genres = Collections.unmodifiableList(sortedGenres);
+        this.genreKeys = keys;
+        this.genreBitmaps = bitmaps;
+        this.tokenBitmaps = Collections.unmodifiableMap(byToken);
+    }
+
+    /**
+     * Splits a compound genre such as "Crime/Drama" into lowercase tokens.
+     */
+    public static List<String> tokenize(String genre) {
+        List<String> tokens = new ArrayList<>();
+        for (String part : genre.split(TOKEN_SEPARATOR)) {
+            String token = MovieSearchCriteria.searchKey(part);
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Finds every movie whose genre contains the term, matching the case-insensitive partial
+     * matching of the original scan.
+     *
+     * @param term Already-normalized (lowercased) search term
+     * @return New bitmap of matching ordinals, safe for the caller to modify
+     */
+    public BitSet search(String term) {
+        BitSet tokenHit = tokenBitmaps.get(term);
+        BitSet result = new BitSet(size);
+        for (int i = 0; i < genreKeys.size(); i++) {
+            BitSet bitmap = genreBitmaps.get(i);
+            // Skip genres the exact token bitmap already covers
+            if (tokenHit != null && bitmap.intersects(tokenHit)) {
+                continue;
+            }
+            if (genreKeys.get(i).contains(term)) {
+                result.or(bitmap);
+            }
+        }
+        if (tokenHit != null) {
+            result.or(tokenHit);
+        }
+        return result;
+    }
+
+    /**
+     * @return Bitmap of movies tagged with the exact token, or an empty bitmap; never modify it
+     */
+    public BitSet tokenBitmap(String token) {
+        BitSet bitmap = tokenBitmaps.get(token);
+        return bitmap != null ? bitmap : new BitSet();
+    }
+
+    /**
+     * @return Distinct raw genre strings, sorted alphabetically
+     */
+    public List<String> getGenres() {
+        return genres;
+    }
+
+    /**
+     * @return Distinct lowercase genre tokens, sorted alphabetically
+     */
+    public List<String> getTokens() {
+        return new ArrayList<>(tokenBitmaps.keySet());
+    }
+}
@@ -0,0 +1,40 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of unboxed ints, used by the indexes while they gather posting lists.
+ */
+final class IntList {
+    private int[] values = new int[4];
+    private int size;
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * Appends an ordinal to a posting list unless it's already the last one. Ordinals arrive in
+     * ascending order while an index is built, so this keeps each list sorted and unique.
+     */
+    void addPosting(int ordinal) {
+        if (size == 0 || values[size - 1] != ordinal) {
+            add(ordinal);
+        }
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
@@ -12,6 +12,7 @@ public class Movie {
     private final String description;
     private final int duration;
     private final double imdbRating;
+    private final String icon;
 
     public Movie(long id, String movieName, String director, int year, String genre, String description, int duration, double imdbRating) {
         this.id = id;
@@ -22,6 +23,7 @@ public class Movie {
         this.description = description;
         this.duration = duration;
         this.imdbRating = imdbRating;
+        this.icon = MovieIconUtils.getMovieIcon(movieName);
     }
 
     public long getId() {
@@ -57,6 +59,6 @@ public class Movie {
     }
 
     public String getIcon() {
-        return MovieIconUtils.getMovieIcon(this.movieName);
+        return this.icon;
     }
 }
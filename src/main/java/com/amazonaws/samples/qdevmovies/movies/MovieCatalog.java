@@ -0,0 +1,426 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Immutable, fully indexed view of one loaded catalog.
+ * Movies are addressed by ordinal, which follows ascending movie ID so every result list comes
+ * back in a stable, pageable order. MovieService swaps in a new instance when the catalog changes.
+ */
+public class MovieCatalog {
+    private static final Logger logger = LogManager.getLogger(MovieCatalog.class);
+
+    private final List<Movie> movies;
+    private final Map<Long, Integer> ordinalsById;
+    private final TrigramIndex titleIndex;
+    private final FuzzyTitleIndex fuzzyTitleIndex;
+    private final FullTextIndex textIndex;
+    private final GenreIndex genreIndex;
+    private final ColumnarCatalog columns;
+    private final SortIndex sortIndex;
+    private final String version;
+    private final MovieFacets facets;
+    private final MovieJson json;
+    private final SuggestionIndex titleSuggestions;
+    private final SuggestionIndex directorSuggestions;
+
+    /**
+     * Sorts the movies by ID and builds every index over them.
+     *
+     * @param loaded Movies in any order; the list is sorted in place
+     * @param objectMapper Mapper the movies' cached JSON is written with
+     */
+    public MovieCatalog(List<Movie> loaded, ObjectMapper objectMapper) {
+        loaded.sort(Comparator.comparingLong(Movie::getId));
+        this.movies = Collections.unmodifiableList(loaded);
+        this.ordinalsById = new HashMap<>();
+        List<String> titleKeys = new ArrayList<>(movies.size());
+        List<String> genres = new ArrayList<>(movies.size());
+        for (int ordinal = 0; ordinal < movies.size(); ordinal++) {
+            Movie movie = movies.get(ordinal);
+            ordinalsById.put(movie.getId(), ordinal);
+            titleKeys.add(MovieSearchCriteria.searchKey(movie.getMovieName()));
+            genres.add(movie.getGenre());
+        }
+
+        // The indexes are independent of each other, so build them on separate cores
+        long start = System.nanoTime();
+        CompletableFuture<TrigramIndex> titleIndexFuture = CompletableFuture.supplyAsync(() -> new TrigramIndex(titleKeys));
+        CompletableFuture<FuzzyTitleIndex> fuzzyTitleIndexFuture = CompletableFuture.supplyAsync(() -> new FuzzyTitleIndex(titleKeys));
+        CompletableFuture<FullTextIndex> textIndexFuture = CompletableFuture.supplyAsync(() -> new FullTextIndex(movies));
+        CompletableFuture<GenreIndex> genreIndexFuture = CompletableFuture.supplyAsync(() -> new GenreIndex(genres));
+        CompletableFuture<ColumnarCatalog> columnsFuture = CompletableFuture.supplyAsync(() -> new ColumnarCatalog(movies));
+        CompletableFuture<SortIndex> sortIndexFuture = columnsFuture.thenApplyAsync(built -> new SortIndex(built, titleKeys));
+        CompletableFuture<MovieFacets> facetsFuture = columnsFuture.thenApply(built -> MovieFacets.count(built, null));
+        CompletableFuture<String> versionFuture = CompletableFuture.supplyAsync(() -> computeVersion(movies));
+        CompletableFuture<MovieJson> jsonFuture = CompletableFuture.supplyAsync(() -> new MovieJson(movies, objectMapper));
+        CompletableFuture<SuggestionIndex> titleSuggestionsFuture = CompletableFuture.supplyAsync(() -> buildTitleSuggestions(movies));
+        CompletableFuture<SuggestionIndex> directorSuggestionsFuture = CompletableFuture.supplyAsync(() -> buildDirectorSuggestions(movies));
+        this.titleIndex = titleIndexFuture.join();
+        this.fuzzyTitleIndex = fuzzyTitleIndexFuture.join();
+        this.textIndex = textIndexFuture.join();
+        this.genreIndex = genreIndexFuture.join();
+        this.columns = columnsFuture.join();
+        this.sortIndex = sortIndexFuture.join();
+        this.version = versionFuture.join();
+        this.facets = facetsFuture.join();
+        this.json = jsonFuture.join();
+        this.titleSuggestions = titleSuggestionsFuture.join();
+        this.directorSuggestions = directorSuggestionsFuture.join();
+        logger.info("Built catalog indexes in {} ms", (System.nanoTime() - start) / 1_000_000);
+        logger.info("Built title index over {} movies with {} trigrams", titleIndex.size(), titleIndex.trigramCount());
+        logger.info("Built fuzzy title index with {} title words", fuzzyTitleIndex.termCount());
+        logger.info("Built full-text index with {} terms in {} bytes of postings", textIndex.termCount(), textIndex.postingBytes());
+        logger.info("Built genre index with {} genres and {} tokens", genreIndex.getGenres().size(), genreIndex.getTokens().size());
+        logger.info("Built columnar catalog with {} directors (~{} bytes of columns)", columns.getDirectorCount(), columns.estimateColumnBytes());
+        logger.info("Pre-sorted {} movies by {}", sortIndex.size(), Arrays.toString(MovieSort.values()));
+        logger.info("Serialized {} movies to {} bytes of JSON", movies.size(), json.sizeInBytes());
+        logger.info("Built suggestion tries with {} and {} nodes", titleSuggestions.nodeCount(), directorSuggestions.nodeCount());
+        logger.info("Catalog version is {}", version);
+    }
+
+    private static SuggestionIndex buildTitleSuggestions(List<Movie> movies) {
+        List<SuggestionIndex.Suggestion> titles = new ArrayList<>(movies.size());
+        for (Movie movie : movies) {
+            titles.add(new SuggestionIndex.Suggestion(movie.getMovieName(), movie.getImdbRating(), movie.getId()));
+        }
+        return new SuggestionIndex(titles);
+    }
+
+    /**
+     * One suggestion per director, ranked by their best rated movie.
+     */
+    private static SuggestionIndex buildDirectorSuggestions(List<Movie> movies) {
+        Map<String, Double> bestRatings = new HashMap<>();
+        for (Movie movie : movies) {
+            bestRatings.merge(movie.getDirector(), movie.getImdbRating(), Math::max);
+        }
+        List<SuggestionIndex.Suggestion> directors = new ArrayList<>(bestRatings.size());
+        for (Map.Entry<String, Double> entry : bestRatings.entrySet()) {
+            directors.add(new SuggestionIndex.Suggestion(entry.getKey(), entry.getValue(), null));
+        }
+        return new SuggestionIndex(directors);
+    }
+
+    /**
+     * Hashes every field of every movie, so any change to the catalog content yields a new version.
+     */
+    private static String computeVersion(List<Movie> movies) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java platform", e);
+        }
+        ByteBuffer numbers = ByteBuffer.allocate(Long.BYTES + Integer.BYTES * 2 + Double.BYTES);
+        for (Movie movie : movies) {
+            numbers.clear();
+            numbers.putLong(movie.getId()).putInt(movie.getYear()).putInt(movie.getDuration()).putDouble(movie.getImdbRating());
+            digest.update(numbers.array());
+            for (String text : new String[] {movie.getMovieName(), movie.getDirector(), movie.getGenre(), movie.getDescription()}) {
+                digest.update(text.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+        }
+        StringBuilder version = new StringBuilder();
+        byte[] hash = digest.digest();
+        for (int i = 0; i < 8; i++) {
+            version.append(String.format("%02x", hash[i]));
+        }
+        return version.toString();
+    }
+
+    /**
+     * Resolves the criteria to a bitmap of matching ordinals.
+     *
+     * @return Matching ordinals, or null when no filter applies and every movie matches
+     */
+    public BitSet findMatches(MovieSearchCriteria criteria) {
+        return findMatches(criteria, MovieMetrics.NOOP);
+    }
+
+    /**
+     * Resolves the criteria to a bitmap of matching ordinals, timing each filter stage that runs.
+     *
+     * @return Matching ordinals, or null when no filter applies and every movie matches
+     */
+    public BitSet findMatches(MovieSearchCriteria criteria, MovieMetrics metrics) {
+        return findMatches(criteria, metrics, null, System.nanoTime());
+    }
+
+    /**
+     * Resolves fuzzy criteria to the matching movies, closest titles first, then highest rated,
+     * then by ID. A title containing the search term outright counts as distance zero, so a fuzzy
+     * search finds everything the plain one does.
+     *
+     * @return Matching movies in rank order
+     */
+    public List<Movie> findFuzzyMatches(MovieSearchCriteria criteria, MovieMetrics metrics) {
+        long start = System.nanoTime();
+        FuzzyTitleIndex.Matches fuzzy = fuzzySearch(MovieSearchCriteria.searchKey(criteria.getName()), criteria.getEditLimit());
+        BitSet matches = findMatches(criteria, metrics, fuzzy, start);
+
+        Integer[] ranked = new Integer[matches.cardinality()];
+        int count = 0;
+        for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+            ranked[count++] = ordinal;
+        }
+        Arrays.sort(ranked, Comparator.<Integer>comparingInt(fuzzy::distanceOf)
+                .thenComparing(ordinal -> movies.get(ordinal).getImdbRating(), Comparator.reverseOrder())
+                .thenComparingInt(ordinal -> ordinal));
+        List<Movie> results = new ArrayList<>(ranked.length);
+        for (Integer ordinal : ranked) {
+            results.add(movies.get(ordinal));
+        }
+        return results;
+    }
+
+    /**
+     * Resolves criteria with a full-text query to the best matching movies, most relevant first,
+     * at most {@link FullTextIndex#MAX_HITS} of them. The other filters, fuzzy name included,
+     * narrow the movies the query may return.
+     *
+     * @return Matching movies in relevance order
+     */
+    public List<Movie> findTextMatches(MovieSearchCriteria criteria, MovieMetrics metrics) {
+        MovieSearchCriteria filters = criteria.withoutQuery();
+        BitSet accepted = filters.hasCriteria() ? findMatches(filters, metrics) : null;
+        long start = System.nanoTime();
+        int[] ranked = accepted != null && accepted.isEmpty()
+                ? new int[0]
+                : textIndex.search(criteria.getQ(), FullTextIndex.MAX_HITS, accepted);
+        recordStage(metrics, MovieMetrics.Stage.TEXT, start);
+        logger.info("Ranked {} movies for query '{}'", ranked.length, criteria.getQ());
+        return moviesAt(ranked);
+    }
+
+    /**
+     * Cuts one page of matches in sort order from the permutations sorted at load time, so a page
+     * walks only as far as it needs to instead of sorting every match.
+     *
+     * @param matches Matching ordinals as returned by {@link #findMatches}, or null for every movie
+     * @param afterId Last movie ID of the previous page, or null for the first page
+     * @param limit Most movies to return
+     * @return Up to limit matching movies, in sort order; none if the previous page's last movie
+     *         is no longer in the catalog
+     */
+    public List<Movie> findSortedPage(BitSet matches, MovieSort sort, boolean descending, Long afterId, int limit, MovieMetrics metrics) {
+        long start = System.nanoTime();
+        int afterOrdinal = -1;
+        if (afterId != null) {
+            Integer ordinal = ordinalsById.get(afterId);
+            if (ordinal == null) {
+                return Collections.emptyList();
+            }
+            afterOrdinal = ordinal;
+        }
+        int matchCount = matches == null ? movies.size() : matches.cardinality();
+        int[] page = sortIndex.page(sort, descending, matches, matchCount, afterOrdinal, limit);
+        recordStage(metrics, MovieMetrics.Stage.SORT, start);
+        return moviesAt(page);
+    }
+
+    private FuzzyTitleIndex.Matches fuzzySearch(String searchName, int maxEdits) {
+        return fuzzyTitleIndex.search(searchName, maxEdits).withExact(titleIndex.search(searchName));
+    }
+
+    /**
+     * @param fuzzy Title matches already looked up for a fuzzy search, or null to look them up here
+     * @param stageStart When the first filter stage started
+     */
+    private BitSet findMatches(MovieSearchCriteria criteria, MovieMetrics metrics, FuzzyTitleIndex.Matches fuzzy, long stageStart) {
+        // Candidate ordinals as a bitmap; null means "every movie" until a filter narrows it
+        BitSet matches = null;
+
+        // Filter by ID first if provided (most specific)
+        Long id = criteria.getId();
+        if (id != null && id > 0) {
+            Integer ordinal = ordinalsById.get(id);
+            if (ordinal == null) {
+                logger.warn("Blimey! No movie found with ID: {}", id);
+                metrics.recordStage(MovieMetrics.Stage.ID, System.nanoTime() - stageStart);
+                return new BitSet(); // Nothing matches if specific ID not found
+            }
+            matches = new BitSet(movies.size());
+            matches.set(ordinal);
+            logger.info("Arrr! Found specific movie by ID: {}", id);
+            stageStart = recordStage(metrics, MovieMetrics.Stage.ID, stageStart);
+        }
+
+        // Filter by name if provided
+        if (criteria.hasName()) {
+            String searchName = MovieSearchCriteria.searchKey(criteria.getName());
+            if (criteria.isFuzzy()) {
+                BitSet fuzzyMatches = (fuzzy != null ? fuzzy : fuzzySearch(searchName, criteria.getEditLimit())).toBitSet(movies.size());
+                if (matches == null) {
+                    matches = fuzzyMatches;
+                } else {
+                    matches.and(fuzzyMatches);
+                }
+            } else if (matches == null) {
+                matches = toBitSet(titleIndex.search(searchName));
+            } else {
+                // Already narrowed (e.g. by ID), so verify the few survivors directly
+                for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+                    if (!titleIndex.matches(ordinal, searchName)) {
+                        matches.clear(ordinal);
+                    }
+                }
+            }
+            logger.info("Filtered by name '{}', {} movies remain", searchName, matches.cardinality());
+            stageStart = recordStage(metrics, MovieMetrics.Stage.NAME, stageStart);
+        }
+
+        // Filter by full-text query if provided; unranked here, any query word matches
+        if (criteria.hasQuery()) {
+            BitSet textMatches = textIndex.matches(criteria.getQ(), movies.size());
+            if (matches == null) {
+                matches = textMatches;
+            } else {
+                matches.and(textMatches);
+            }
+            logger.info("Filtered by query '{}', {} movies remain", criteria.getQ(), matches.cardinality());
+            stageStart = recordStage(metrics, MovieMetrics.Stage.TEXT, stageStart);
+        }
+
+        // Filter by genre if provided
+        if (criteria.hasGenre()) {
+            String searchGenre = MovieSearchCriteria.searchKey(criteria.getGenre());
+            BitSet genreMatches = genreIndex.search(searchGenre);
+            if (matches == null) {
+                matches = genreMatches;
+            } else {
+                matches.and(genreMatches);
+            }
+            logger.info("Filtered by genre '{}', {} movies remain", searchGenre, matches.cardinality());
+            stageStart = recordStage(metrics, MovieMetrics.Stage.GENRE, stageStart);
+        }
+
+        // Year, rating, duration and director run last over the primitive columns
+        if (criteria.hasRangeFilters()) {
+            matches = columns.filter(criteria, matches);
+            logger.info("Filtered by range filters, {} movies remain", matches.cardinality());
+            recordStage(metrics, MovieMetrics.Stage.RANGE, stageStart);
+        }
+
+        return matches;
+    }
+
+    /**
+     * Records the stage that started at stageStart and returns the start of the next one.
+     */
+    private static long recordStage(MovieMetrics metrics, MovieMetrics.Stage stage, long stageStart) {
+        long now = System.nanoTime();
+        metrics.recordStage(stage, now - stageStart);
+        return now;
+    }
+
+    public List<Movie> moviesAt(int[] ordinals) {
+        List<Movie> results = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            results.add(movies.get(ordinal));
+        }
+        return results;
+    }
+
+    public List<Movie> moviesAt(BitSet ordinals) {
+        List<Movie> results = new ArrayList<>(ordinals.cardinality());
+        for (int ordinal = ordinals.nextSetBit(0); ordinal >= 0; ordinal = ordinals.nextSetBit(ordinal + 1)) {
+            results.add(movies.get(ordinal));
+        }
+        return results;
+    }
+
+    private BitSet toBitSet(int[] ordinals) {
+        BitSet bitmap = new BitSet(movies.size());
+        for (int ordinal : ordinals) {
+            bitmap.set(ordinal);
+        }
+        return bitmap;
+    }
+
+    /**
+     * @return Every movie, in ascending ID order
+     */
+    public List<Movie> getMovies() {
+        return movies;
+    }
+
+    /**
+     * @return Ordinal of the movie with the given ID, or null if there is none
+     */
+    public Integer ordinalOf(long id) {
+        return ordinalsById.get(id);
+    }
+
+    public int size() {
+        return movies.size();
+    }
+
+    public TrigramIndex getTitleIndex() {
+        return titleIndex;
+    }
+
+    public FullTextIndex getTextIndex() {
+        return textIndex;
+    }
+
+    public GenreIndex getGenreIndex() {
+        return genreIndex;
+    }
+
+    public ColumnarCatalog getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return Facet counts over the whole catalog, computed once when the catalog was built
+     */
+    public MovieFacets getFacets() {
+        return facets;
+    }
+
+    /**
+     * @return Every movie's JSON, serialized once when the catalog was built
+     */
+    public MovieJson getJson() {
+        return json;
+    }
+
+    /**
+     * @return Autocomplete trie over the movie titles
+     */
+    public SuggestionIndex getTitleSuggestions() {
+        return titleSuggestions;
+    }
+
+    /**
+     * @return Autocomplete trie over the directors
+     */
+    public SuggestionIndex getDirectorSuggestions() {
+        return directorSuggestions;
+    }
+
+    /**
+     * @return Content hash of the catalog; changes whenever any movie changes
+     */
+    public String getVersion() {
+        return version;
+    }
+}
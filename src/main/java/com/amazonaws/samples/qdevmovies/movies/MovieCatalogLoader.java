@@ -0,0 +1,170 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming loader for the movies.json catalog.
+ * Records are pulled off the input stream one token at a time, so peak memory is the parsed
+ * catalog itself rather than the raw text plus a full JSON DOM. Load statistics (records/sec and
+ * peak heap) are kept for the last load.
+ */
+public class MovieCatalogLoader {
+    private static final Logger logger = LogManager.getLogger(MovieCatalogLoader.class);
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private int recordsLoaded;
+    private int recordsSkipped;
+    private long elapsedNanos;
+    private long peakHeapBytes;
+
+    /**
+     * Reads a JSON array of movie objects from the stream. Malformed records are skipped and counted.
+     *
+     * @param inputStream Stream positioned at the start of the array; closed when done
+     * @return Movies in file order
+     * @throws IOException If the stream can't be read or isn't a JSON array
+     */
+    public List<Movie> load(InputStream inputStream) throws IOException {
+        resetPeakHeap();
+        long start = System.nanoTime();
+        List<Movie> movies = new ArrayList<>();
+        recordsSkipped = 0;
+
+        try (JsonParser parser = JSON_FACTORY.createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of movies at " + parser.getCurrentLocation());
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IOException("Catalog ended before its closing bracket at " + parser.getCurrentLocation());
+                }
+                Movie movie = null;
+                if (token == JsonToken.START_OBJECT) {
+                    movie = readMovie(parser);
+                } else {
+                    // A null, scalar or nested array where a movie belongs
+                    logger.warn("Skipping non-object catalog entry near {}", parser.getCurrentLocation());
+                    parser.skipChildren();
+                }
+                if (movie != null) {
+                    movies.add(movie);
+                } else {
+                    recordsSkipped++;
+                }
+            }
+        }
+
+        elapsedNanos = System.nanoTime() - start;
+        recordsLoaded = movies.size();
+        peakHeapBytes = readPeakHeap();
+        logger.info("Streamed {} movies ({} skipped) in {} ms, {} records/sec, peak heap ~{} MB",
+                recordsLoaded, recordsSkipped, elapsedNanos / 1_000_000, (long) getRecordsPerSecond(),
+                peakHeapBytes / (1024 * 1024));
+        return movies;
+    }
+
+    /**
+     * Reads one movie object; the parser is left on its END_OBJECT.
+     *
+     * @return The movie, or null if a required field is missing or has the wrong type
+     * @throws IOException If the object isn't closed
+     */
+    private Movie readMovie(JsonParser parser) throws IOException {
+        Long id = null;
+        String movieName = null;
+        String director = null;
+        Integer year = null;
+        String genre = null;
+        String description = null;
+        Integer duration = null;
+        Double imdbRating = null;
+
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            // Step over nested values whole, so a known field holding an object or array is just
+            // the wrong type instead of cutting the record short
+            parser.skipChildren();
+            switch (field) {
+                case "id": id = value.isNumeric() ? parser.getLongValue() : null; break;
+                case "movieName": movieName = textOrNull(parser, value); break;
+                case "director": director = textOrNull(parser, value); break;
+                case "year": year = value.isNumeric() ? parser.getIntValue() : null; break;
+                case "genre": genre = textOrNull(parser, value); break;
+                case "description": description = textOrNull(parser, value); break;
+                case "duration": duration = value.isNumeric() ? parser.getIntValue() : null; break;
+                case "imdbRating": imdbRating = value.isNumeric() ? parser.getDoubleValue() : null; break;
+                default: break;
+            }
+        }
+        if (token != JsonToken.END_OBJECT) {
+            throw new IOException("Unterminated movie record at " + parser.getCurrentLocation());
+        }
+
+        if (id == null || movieName == null || director == null || year == null
+                || genre == null || description == null || duration == null || imdbRating == null) {
+            logger.warn("Skipping malformed movie record near {}", parser.getCurrentLocation());
+            return null;
+        }
+        return new Movie(id, movieName, director, year, genre, description, duration, imdbRating);
+    }
+
+    private static String textOrNull(JsonParser parser, JsonToken value) throws IOException {
+        return value == JsonToken.VALUE_STRING ? parser.getText() : null;
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long readPeakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid() && pool.getPeakUsage() != null) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    public int getRecordsLoaded() {
+        return recordsLoaded;
+    }
+
+    public int getRecordsSkipped() {
+        return recordsSkipped;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    public double getRecordsPerSecond() {
+        return elapsedNanos > 0 ? recordsLoaded * 1_000_000_000.0 / elapsedNanos : 0;
+    }
+
+    /**
+     * @return Sum of the heap pools' peak usage during the last load, in bytes
+     */
+    public long getPeakHeapBytes() {
+        return peakHeapBytes;
+    }
+}
@@ -0,0 +1,184 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Assembles everything the movie details page shows, with each dependency fetched concurrently
+ * on a bounded pool under its own timeout.
+ * Reviews only need the movie ID, so they load alongside the movie lookup. A slow or failed
+ * review lookup degrades to a fallback instead of failing the page; only the movie
+ * itself is required.
+ */
+@Component
+public class MovieDetailsLoader {
+    private static final Logger logger = LogManager.getLogger(MovieDetailsLoader.class);
+
+    private final MovieService movieService;
+    private final ReviewService reviewService;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final Duration movieTimeout;
+    private final Duration reviewTimeout;
+
+    /**
+     * Creates the loader with its own bounded pool; when the queue is full, lookups fall back
+     * rather than piling up.
+     */
+    @Autowired
+    public MovieDetailsLoader(MovieService movieService, ReviewService reviewService,
+                              @Value("${movies.details.pool-size:16}") int poolSize,
+                              @Value("${movies.details.queue-capacity:256}") int queueCapacity,
+                              @Value("${movies.details.movie-timeout:500ms}") Duration movieTimeout,
+                              @Value("${movies.details.review-timeout:300ms}") Duration reviewTimeout) {
+        this(movieService, reviewService, newBoundedPool(poolSize, queueCapacity), true, movieTimeout, reviewTimeout);
+        logger.info("Details pool sized to {} threads and {} queued lookups", poolSize, queueCapacity);
+    }
+
+    /**
+     * @param executor Runs the lookups; the caller keeps ownership and shuts it down
+     */
+    public MovieDetailsLoader(MovieService movieService, ReviewService reviewService, Executor executor,
+                              Duration movieTimeout, Duration reviewTimeout) {
+        this(movieService, reviewService, executor, false, movieTimeout, reviewTimeout);
+    }
+
+    private MovieDetailsLoader(MovieService movieService, ReviewService reviewService, Executor executor,
+                               boolean owned, Duration movieTimeout, Duration reviewTimeout) {
+        this.movieService = movieService;
+        this.reviewService = reviewService;
+        this.executor = executor;
+        this.ownedExecutor = owned ? (ExecutorService) executor : null;
+        this.movieTimeout = movieTimeout;
+        this.reviewTimeout = reviewTimeout;
+    }
+
+    private static ExecutorService newBoundedPool(int poolSize, int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "movie-details-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Starts loading the details page for a movie.
+     *
+     * @param movieId The movie ID
+     * @return Future of the details, empty if there's no such movie; fails only if the movie
+     *         lookup itself fails or times out
+     */
+    public CompletableFuture<Optional<MovieDetails>> load(long movieId) {
+        // Read before the lookups, so the version never claims newer data than was loaded
+        String dataVersion = movieService.getCatalogVersion() + ":" + reviewService.getDataVersion();
+        CompletableFuture<Optional<Movie>> movieFuture = supply(() -> movieService.getMovieById(movieId), movieTimeout);
+        CompletableFuture<ReviewResult> reviewsFuture = supply(() -> reviewService.getReviewsForMovie(movieId), reviewTimeout)
+                .handle((reviews, error) -> {
+                    if (error != null) {
+                        logger.warn("Arrr! Reviews for movie {} be lost at sea: {}", movieId, error.toString());
+                        return new ReviewResult(Collections.<Review>emptyList(), false);
+                    }
+                    return new ReviewResult(reviews, true);
+                });
+
+        return movieFuture.thenCompose(movie -> {
+            if (!movie.isPresent()) {
+                return CompletableFuture.completedFuture(Optional.<MovieDetails>empty());
+            }
+            // The icon is resolved once when the movie is loaded, so only the reviews are awaited
+            return reviewsFuture.thenApply(reviews -> Optional.of(new MovieDetails(
+                    movie.get(), movie.get().getIcon(), reviews.reviews, reviews.available, dataVersion)));
+        });
+    }
+
+    private <T> CompletableFuture<T> supply(Supplier<T> lookup, Duration timeout) {
+        try {
+            return CompletableFuture.supplyAsync(lookup, executor).orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    private static final class ReviewResult {
+        private final List<Review> reviews;
+        private final boolean available;
+
+        ReviewResult(List<Review> reviews, boolean available) {
+            this.reviews = reviews;
+            this.available = available;
+        }
+    }
+
+    /**
+     * Everything the details page renders for one movie.
+     */
+    public static class MovieDetails {
+        private final Movie movie;
+        private final String icon;
+        private final List<Review> reviews;
+        private final boolean reviewsAvailable;
+        private final String dataVersion;
+
+        public MovieDetails(Movie movie, String icon, List<Review> reviews, boolean reviewsAvailable, String dataVersion) {
+            this.movie = movie;
+            this.icon = icon;
+            this.reviews = reviews;
+            this.reviewsAvailable = reviewsAvailable;
+            this.dataVersion = dataVersion;
+        }
+
+        public Movie getMovie() {
+            return movie;
+        }
+
+        public String getIcon() {
+            return icon;
+        }
+
+        public List<Review> getReviews() {
+            return reviews;
+        }
+
+        /**
+         * @return False when the reviews timed out or failed and the page shows none as a fallback
+         */
+        public boolean isReviewsAvailable() {
+            return reviewsAvailable;
+        }
+
+        /**
+         * @return Catalog and review data versions the details were loaded from
+         */
+        public String getDataVersion() {
+            return dataVersion;
+        }
+    }
+}
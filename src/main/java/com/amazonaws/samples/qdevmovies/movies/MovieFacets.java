@@ -0,0 +1,131 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Movie counts per genre token, decade, director and rating band for one set of movies.
+ * Counting is a single pass over the columnar catalog into dictionary-code tallies; names are only
+ * resolved per distinct genre and director afterwards, so a facet request never touches Movie objects.
+ */
+public class MovieFacets {
+    /** Width of a rating band; a band is keyed by its lower bound, so "4.5" counts ratings in [4.5, 5.0) */
+    static final double RATING_BAND_WIDTH = 0.5;
+
+    private final int total;
+    private final Map<String, Integer> genres;
+    private final Map<String, Integer> decades;
+    private final Map<String, Integer> directors;
+    private final Map<String, Integer> ratingBands;
+
+    private MovieFacets(int total, Map<String, Integer> genres, Map<String, Integer> decades,
+                        Map<String, Integer> directors, Map<String, Integer> ratingBands) {
+        this.total = total;
+        this.genres = Collections.unmodifiableMap(genres);
+        this.decades = Collections.unmodifiableMap(decades);
+        this.directors = Collections.unmodifiableMap(directors);
+        this.ratingBands = Collections.unmodifiableMap(ratingBands);
+    }
+
+    /**
+     * Counts the facets of the given movies in one pass.
+     *
+     * @param columns Columnar catalog the ordinals refer to
+     * @param ordinals Movies to count, or null for the whole catalog
+     * @return Facet counts; genres and directors by descending count, decades and bands ascending
+     */
+    public static MovieFacets count(ColumnarCatalog columns, BitSet ordinals) {
+        int[] genreCounts = new int[columns.getGenreCount()];
+        int[] directorCounts = new int[columns.getDirectorCount()];
+        TreeMap<Integer, Integer> decadeCounts = new TreeMap<>();
+        TreeMap<Double, Integer> bandCounts = new TreeMap<>();
+        int total = 0;
+
+        int ordinal = ordinals == null ? (columns.size() > 0 ? 0 : -1) : ordinals.nextSetBit(0);
+        while (ordinal >= 0 && ordinal < columns.size()) {
+            genreCounts[columns.getGenreCode(ordinal)]++;
+            directorCounts[columns.getDirectorCode(ordinal)]++;
+            decadeCounts.merge(columns.getYear(ordinal) / 10 * 10, 1, Integer::sum);
+            bandCounts.merge(Math.floor(columns.getImdbRating(ordinal) / RATING_BAND_WIDTH) * RATING_BAND_WIDTH, 1, Integer::sum);
+            total++;
+            ordinal = ordinals == null ? ordinal + 1 : ordinals.nextSetBit(ordinal + 1);
+        }
+
+        // Compound genres like "Crime/Drama" count once towards each of their tokens
+        Map<String, Integer> genres = new TreeMap<>();
+        for (int code = 0; code < genreCounts.length; code++) {
+            if (genreCounts[code] > 0) {
+                for (String token : GenreIndex.tokenize(columns.getGenreByCode(code))) {
+                    genres.merge(token, genreCounts[code], Integer::sum);
+                }
+            }
+        }
+        Map<String, Integer> directors = new TreeMap<>();
+        for (int code = 0; code < directorCounts.length; code++) {
+            if (directorCounts[code] > 0) {
+                directors.merge(columns.getDirectorByCode(code), directorCounts[code], Integer::sum);
+            }
+        }
+        Map<String, Integer> decades = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Integer> decade : decadeCounts.entrySet()) {
+            decades.put(decade.getKey() + "s", decade.getValue());
+        }
+        Map<String, Integer> ratingBands = new LinkedHashMap<>();
+        for (Map.Entry<Double, Integer> band : bandCounts.entrySet()) {
+            ratingBands.put(String.format(Locale.ROOT, "%.1f", band.getKey()), band.getValue());
+        }
+        return new MovieFacets(total, byDescendingCount(genres), decades, byDescendingCount(directors), ratingBands);
+    }
+
+    private static Map<String, Integer> byDescendingCount(Map<String, Integer> alphabetical) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(alphabetical.entrySet());
+        // Stable sort, so equal counts stay alphabetical
+        entries.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
+        Map<String, Integer> sorted = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : entries) {
+            sorted.put(entry.getKey(), entry.getValue());
+        }
+        return sorted;
+    }
+
+    /**
+     * @return Number of movies counted
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * @return Movies per lowercase genre token, most common first
+     */
+    public Map<String, Integer> getGenres() {
+        return genres;
+    }
+
+    /**
+     * @return Movies per decade ("1990s"), oldest first
+     */
+    public Map<String, Integer> getDecades() {
+        return decades;
+    }
+
+    /**
+     * @return Movies per director, most prolific first
+     */
+    public Map<String, Integer> getDirectors() {
+        return directors;
+    }
+
+    /**
+     * @return Movies per half-point IMDb rating band keyed by its lower bound ("4.5"), lowest first
+     */
+    public Map<String, Integer> getRatingBands() {
+        return ratingBands;
+    }
+}
@@ -0,0 +1,255 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Every movie of one catalog serialized to JSON once, as UTF-8 bytes packed into a single buffer
+ * and addressed by ordinal. Responses copy these bytes straight to the output instead of running
+ * Jackson over each Movie, so a large page costs array copies rather than reflection and garbage.
+ * Only the exact Movie instances of this catalog are served from the buffer; anything else (a
+ * movie from a catalog swapped in mid-request, or a test double) is serialized as usual.
+ */
+public class MovieJson {
+    private final List<Movie> movies;
+    private final long[] ids;
+    private final byte[] buffer;
+    private final int[] offsets;
+
+    /**
+     * @param movies Movies in ascending ID order, as held by the catalog
+     * @param objectMapper Mapper the responses are written with, so the cached documents match them
+     */
+    public MovieJson(List<Movie> movies, ObjectMapper objectMapper) {
+        ObjectWriter writer = objectMapper.writer();
+        this.movies = movies;
+        this.ids = new long[movies.size()];
+        this.offsets = new int[movies.size() + 1];
+        ByteArrayOutputStream out = new ByteArrayOutputStream(movies.size() * 256);
+        try {
+            for (int ordinal = 0; ordinal < movies.size(); ordinal++) {
+                ids[ordinal] = movies.get(ordinal).getId();
+                offsets[ordinal] = out.size();
+                writer.writeValue(out, movies.get(ordinal));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize the catalog", e);
+        }
+        offsets[movies.size()] = out.size();
+        this.buffer = out.toByteArray();
+    }
+
+    /**
+     * @return Ordinal of this exact movie instance, or -1 if it isn't one of this catalog's movies
+     */
+    private int ordinalOf(Movie movie) {
+        int ordinal = Arrays.binarySearch(ids, movie.getId());
+        return ordinal >= 0 && movies.get(ordinal) == movie ? ordinal : -1;
+    }
+
+    /**
+     * Writes the movie's JSON document to a raw byte stream.
+     *
+     * @return False if the movie isn't cached here and nothing was written
+     */
+    public boolean writeTo(Movie movie, OutputStream out) throws IOException {
+        int ordinal = ordinalOf(movie);
+        if (ordinal < 0) {
+            return false;
+        }
+        out.write(buffer, offsets[ordinal], offsets[ordinal + 1] - offsets[ordinal]);
+        return true;
+    }
+
+    /**
+     * Writes the movie as the next value of a JSON document under construction, falling back to
+     * regular serialization if it isn't cached here.
+     */
+    public void writeTo(Movie movie, JsonGenerator gen) throws IOException {
+        SerializableString document = documentOf(movie);
+        if (document == null) {
+            gen.writeObject(movie);
+        } else {
+            gen.writeRawValue(document);
+        }
+    }
+
+    /**
+     * @return The movie's cached JSON document, or null if it isn't one of this catalog's movies
+     */
+    SerializableString documentOf(Movie movie) {
+        int ordinal = ordinalOf(movie);
+        return ordinal < 0 ? null : new Fragment(buffer, offsets[ordinal], offsets[ordinal + 1] - offsets[ordinal]);
+    }
+
+    /**
+     * Wraps a list of movies so Jackson writes it as a JSON array of the cached documents.
+     */
+    public JsonSerializable array(List<Movie> list) {
+        return new MovieArray(this, list);
+    }
+
+    /**
+     * @return Bytes of cached JSON
+     */
+    public int sizeInBytes() {
+        return buffer.length;
+    }
+
+    private static final class MovieArray implements JsonSerializable {
+        private final MovieJson json;
+        private final List<Movie> list;
+
+        MovieArray(MovieJson json, List<Movie> list) {
+            this.json = json;
+            this.list = list;
+        }
+
+        @Override
+        public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeStartArray(list, list.size());
+            for (Movie movie : list) {
+                json.writeTo(movie, gen);
+            }
+            gen.writeEndArray();
+        }
+
+        @Override
+        public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+            serialize(gen, serializers);
+        }
+    }
+
+    /**
+     * A slice of the buffer in the shape Jackson's raw writes take. Raw writes copy the unquoted
+     * bytes; the quoted (string-escaped) forms are escaped on demand, should anything write the
+     * fragment as a string value.
+     */
+    private static final class Fragment implements SerializableString {
+        private final byte[] buffer;
+        private final int offset;
+        private final int length;
+
+        Fragment(byte[] buffer, int offset, int length) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public String getValue() {
+            return new String(buffer, offset, length, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int charLength() {
+            return getValue().length();
+        }
+
+        @Override
+        public byte[] asUnquotedUTF8() {
+            return Arrays.copyOfRange(buffer, offset, offset + length);
+        }
+
+        @Override
+        public int appendUnquotedUTF8(byte[] target, int targetOffset) {
+            if (targetOffset + length > target.length) {
+                return -1;
+            }
+            System.arraycopy(buffer, offset, target, targetOffset, length);
+            return length;
+        }
+
+        @Override
+        public int appendUnquoted(char[] target, int targetOffset) {
+            String value = getValue();
+            if (targetOffset + value.length() > target.length) {
+                return -1;
+            }
+            value.getChars(0, value.length(), target, targetOffset);
+            return value.length();
+        }
+
+        @Override
+        public int writeUnquotedUTF8(OutputStream out) throws IOException {
+            out.write(buffer, offset, length);
+            return length;
+        }
+
+        @Override
+        public int putUnquotedUTF8(ByteBuffer out) {
+            if (out.remaining() < length) {
+                return -1;
+            }
+            out.put(buffer, offset, length);
+            return length;
+        }
+
+        @Override
+        public char[] asQuotedChars() {
+            return JsonStringEncoder.getInstance().quoteAsString(getValue());
+        }
+
+        @Override
+        public byte[] asQuotedUTF8() {
+            return JsonStringEncoder.getInstance().quoteAsUTF8(getValue());
+        }
+
+        @Override
+        public int appendQuotedUTF8(byte[] target, int targetOffset) {
+            byte[] quoted = asQuotedUTF8();
+            if (targetOffset + quoted.length > target.length) {
+                return -1;
+            }
+            System.arraycopy(quoted, 0, target, targetOffset, quoted.length);
+            return quoted.length;
+        }
+
+        @Override
+        public int appendQuoted(char[] target, int targetOffset) {
+            char[] quoted = asQuotedChars();
+            if (targetOffset + quoted.length > target.length) {
+                return -1;
+            }
+            System.arraycopy(quoted, 0, target, targetOffset, quoted.length);
+            return quoted.length;
+        }
+
+        @Override
+        public int writeQuotedUTF8(OutputStream out) throws IOException {
+            byte[] quoted = asQuotedUTF8();
+            out.write(quoted);
+            return quoted.length;
+        }
+
+        @Override
+        public int putQuotedUTF8(ByteBuffer out) {
+            byte[] quoted = asQuotedUTF8();
+            if (out.remaining() < quoted.length) {
+                return -1;
+            }
+            out.put(quoted);
+            return quoted.length;
+        }
+
+        @Override
+        public String toString() {
+            return getValue();
+        }
+    }
+}
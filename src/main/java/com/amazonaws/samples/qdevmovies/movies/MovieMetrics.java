@@ -0,0 +1,76 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency and result-size meters for the search hot path.
+ * Every timer publishes p50/p99/p999 and a percentile histogram, so SLOs can be set per stage
+ * and aggregated across instances from the metrics endpoint.
+ */
+public class MovieMetrics {
+    /** Meters that record into nothing, for services built outside Spring */
+    public static final MovieMetrics NOOP = new MovieMetrics(new CompositeMeterRegistry());
+
+    private static final double[] PERCENTILES = {0.5, 0.99, 0.999};
+
+    /**
+     * The steps of MovieCatalog.findMatches, in the order they run, then the walk that cuts a
+     * sorted page out of the matches.
+     */
+    public enum Stage {
+        ID, NAME, TEXT, GENRE, RANGE, SORT
+    }
+
+    private final MeterRegistry registry;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Timer searchTimer;
+    private final DistributionSummary resultSizes;
+
+    public MovieMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, latencyTimer(registry, "movies.search.stage",
+                    "Time spent in one filter stage of an uncached search", "stage", stage.name().toLowerCase(Locale.ROOT)));
+        }
+        this.searchTimer = latencyTimer(registry, "movies.search", "End-to-end MovieService search time, cache hits included");
+        this.resultSizes = DistributionSummary.builder("movies.search.results")
+                .description("Movies matched per search")
+                .baseUnit("movies")
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Builds (or looks up) a timer with the percentiles every latency meter in the app publishes.
+     */
+    public static Timer latencyTimer(MeterRegistry registry, String name, String description, String... tags) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public void recordStage(Stage stage, long nanos) {
+        stageTimers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordSearch(long nanos, int resultCount) {
+        searchTimer.record(nanos, TimeUnit.NANOSECONDS);
+        resultSizes.record(resultCount);
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+}
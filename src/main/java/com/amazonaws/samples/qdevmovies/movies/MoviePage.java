@@ -0,0 +1,168 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a movie listing, cut with keyset pagination over movie IDs.
+ * The cursor is an opaque token naming the last ID of the previous page, so finding where a page
+ * starts is a binary search and a deep page costs no more than the first one.
+ */
+public class MoviePage {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String CURSOR_PREFIX = "after:";
+
+    private final List<Movie> movies;
+    private final int total;
+    private final String nextCursor;
+
+    private MoviePage(List<Movie> movies, int total, String nextCursor) {
+        this.movies = movies;
+        this.total = total;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Cuts a page out of a list sorted by ascending movie ID, as returned by MovieService.
+     *
+     * @param sortedById Movies in ascending ID order
+     * @param cursor Cursor from the previous page, or null/empty for the first page
+     * @param limit Requested page size, or null for the default; capped at {@link #MAX_PAGE_SIZE}
+     * @return The page, with a next cursor when more movies follow
+     * @throws IllegalArgumentException If the cursor is malformed or the limit isn't positive
+     */
+    public static MoviePage of(List<Movie> sortedById, String cursor, Integer limit) {
+        int pageSize = clampLimit(limit);
+        int start = 0;
+        if (cursor != null && !cursor.trim().isEmpty()) {
+            start = firstIndexAfter(sortedById, decodeCursor(cursor));
+        }
+        int end = Math.min(sortedById.size(), start + pageSize);
+        List<Movie> page = Collections.unmodifiableList(sortedById.subList(start, end));
+        String next = end < sortedById.size() ? encodeCursor(sortedById.get(end - 1).getId()) : null;
+        return new MoviePage(page, sortedById.size(), next);
+    }
+
+    /**
+     * Cuts a page out of a list in some other order, such as ranked search results. The cursor
+     * still names the last ID of the previous page, found by a scan of the list; a cursor whose
+     * movie is no longer in the list yields an empty last page rather than starting over.
+     *
+     * @param ranked Movies in the order they are to be paged through
+     * @param cursor Cursor from the previous page, or null/empty for the first page
+     * @param limit Requested page size, or null for the default; capped at {@link #MAX_PAGE_SIZE}
+     * @return The page, with a next cursor when more movies follow
+     * @throws IllegalArgumentException If the cursor is malformed or the limit isn't positive
+     */
+    public static MoviePage ofRanked(List<Movie> ranked, String cursor, Integer limit) {
+        int pageSize = clampLimit(limit);
+        int start = 0;
+        if (cursor != null && !cursor.trim().isEmpty()) {
+            long lastId = decodeCursor(cursor);
+            start = ranked.size();
+            for (int i = 0; i < ranked.size(); i++) {
+                if (ranked.get(i).getId() == lastId) {
+                    start = i + 1;
+                    break;
+                }
+            }
+        }
+        int end = Math.min(ranked.size(), start + pageSize);
+        List<Movie> page = Collections.unmodifiableList(ranked.subList(start, end));
+        String next = end < ranked.size() ? encodeCursor(ranked.get(end - 1).getId()) : null;
+        return new MoviePage(page, ranked.size(), next);
+    }
+
+    /**
+     * Wraps a page the catalog already cut, such as one walked out of a pre-sorted order. The
+     * next cursor names the page's last movie, like every other cursor.
+     *
+     * @param movies The page's movies, in order
+     * @param total Number of movies matching across all pages
+     * @param more Whether more movies follow this page
+     * @return The page
+     */
+    public static MoviePage ofSlice(List<Movie> movies, int total, boolean more) {
+        String next = more && !movies.isEmpty() ? encodeCursor(movies.get(movies.size() - 1).getId()) : null;
+        return new MoviePage(Collections.unmodifiableList(movies), total, next);
+    }
+
+    /**
+     * @return The effective page size for a requested limit
+     * @throws IllegalArgumentException If the limit isn't positive
+     */
+    public static int clampLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page limit must be positive: " + limit);
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    public static String encodeCursor(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return The last movie ID of the previous page
+     * @throws IllegalArgumentException If the cursor wasn't produced by {@link #encodeCursor}
+     */
+    public static long decodeCursor(String cursor) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed page cursor", e);
+        }
+        if (!decoded.startsWith(CURSOR_PREFIX)) {
+            throw new IllegalArgumentException("Malformed page cursor");
+        }
+        try {
+            return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed page cursor", e);
+        }
+    }
+
+    /**
+     * Binary search for the first movie with an ID greater than lastId.
+     */
+    private static int firstIndexAfter(List<Movie> sortedById, long lastId) {
+        int low = 0;
+        int high = sortedById.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedById.get(mid).getId() <= lastId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public List<Movie> getMovies() {
+        return movies;
+    }
+
+    /**
+     * @return Number of movies matching across all pages
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * @return Cursor for the next page, or null on the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -1,15 +1,26 @@
 package com.amazonaws.samples.qdevmovies.movies;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -21,62 +32,146 @@ import java.util.Map;
 public class MovieSearchController {
     private static final Logger logger = LogManager.getLogger(MovieSearchController.class);
 
+    static final String NDJSON_VALUE = "application/x-ndjson";
+    private static final MediaType NDJSON = MediaType.parseMediaType(NDJSON_VALUE);
+    private static final int STREAM_BUFFER_BYTES = 16 * 1024;
+    private static final int STREAM_FLUSH_EVERY = 64;
+
     @Autowired
     private MovieService movieService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PrecompressedResponses precompressedResponses;
+
     /**
      * Arrr! Search for movies using various criteria, ye savvy sailor!
      * This endpoint be more flexible than a pirate's schedule!
      * 
      * @param name Movie name to search for (optional, partial matching)
+     * @param q Words to look for in titles and descriptions, most relevant movies first (optional)
      * @param id Movie ID to search for (optional, exact matching)
      * @param genre Movie genre to search for (optional, partial matching)
-     * @return JSON response with search results and pirate-themed messages
+     * @param director Director to search for (optional, partial matching)
+     * @param minYear Earliest release year, inclusive (optional)
+     * @param maxYear Latest release year, inclusive (optional)
+     * @param minRating Minimum IMDb rating, inclusive (optional)
+     * @param maxDuration Maximum duration in minutes, inclusive (optional)
+     * @param fuzzy Whether the name search tolerates typos, ranking the closest titles first (optional)
+     * @param maxEdits Most typos per word of a fuzzy name search, 1 or 2 (optional, defaults to 2)
+     * @param sort Field to sort by: rating, year, duration or name (optional, defaults to ID order)
+     * @param order asc or desc (optional, defaults to desc for rating, year and duration, asc for name)
+     * @param limit Page size (optional, defaults to 50, capped at 100)
+     * @param cursor Opaque cursor from the previous page's nextCursor (optional)
+     * @param acceptEncoding Accept-Encoding header; unfiltered listings are served pre-compressed
+     * @return JSON response with one page of search results and pirate-themed messages
      */
     @GetMapping("/movies/search")
-    public ResponseEntity<Map<String, Object>> searchMovies(
+    public ResponseEntity<?> searchMovies(
             @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "q", required = false) String q,
             @RequestParam(value = "id", required = false) Long id,
-            @RequestParam(value = "genre", required = false) String genre) {
+            @RequestParam(value = "genre", required = false) String genre,
+            @RequestParam(value = "director", required = false) String director,
+            @RequestParam(value = "minYear", required = false) Integer minYear,
+            @RequestParam(value = "maxYear", required = false) Integer maxYear,
+            @RequestParam(value = "minRating", required = false) Double minRating,
+            @RequestParam(value = "maxDuration", required = false) Integer maxDuration,
+            @RequestParam(value = "fuzzy", defaultValue = "false") boolean fuzzy,
+            @RequestParam(value = "maxEdits", required = false) Integer maxEdits,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "order", required = false) String order,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         
-        logger.info("Ahoy! Received search request - name: '{}', id: {}, genre: '{}'", name, id, genre);
+        logger.info("Ahoy! Received search request - name: '{}', q: '{}', id: {}, genre: '{}', director: '{}', year: {}-{}, minRating: {}, maxDuration: {}, fuzzy: {}, maxEdits: {}, sort: '{}', order: '{}', limit: {}, cursor: '{}'",
+                name, q, id, genre, director, minYear, maxYear, minRating, maxDuration, fuzzy, maxEdits, sort, order, limit, cursor);
         
         Map<String, Object> response = new HashMap<>();
         
         try {
-            // Validate ID parameter if provided
-            if (id != null && id <= 0) {
-                logger.warn("Blimey! Invalid movie ID provided: {}", id);
+            MovieSearchCriteria criteria = new MovieSearchCriteria(name, id, genre);
+            criteria.setQ(q);
+            criteria.setDirector(director);
+            criteria.setMinYear(minYear);
+            criteria.setMaxYear(maxYear);
+            criteria.setMinRating(minRating);
+            criteria.setMaxDuration(maxDuration);
+            criteria.setFuzzy(fuzzy);
+            criteria.setMaxEdits(maxEdits);
+            
+            // Validate the filters the same way every search endpoint does
+            String invalidMessage = criteria.validate();
+            if (invalidMessage != null) {
+                logger.warn("Blimey! Invalid search criteria provided: {}", criteria);
                 response.put("success", false);
-                response.put("message", "Arrr! That ID be as useless as a compass that points south! Provide a valid movie ID, ye scallywag!");
+                response.put("message", invalidMessage);
                 response.put("movies", List.of());
                 response.put("count", 0);
                 return ResponseEntity.badRequest().body(response);
             }
             
+            // Validate sort order if provided; an order needs something to sort by
+            MovieSort movieSort = MovieSort.parse(sort);
+            if ((sort != null && movieSort == null) || (order != null && (movieSort == null || !isValidOrder(order)))) {
+                logger.warn("Blimey! Invalid sort provided - sort: '{}', order: '{}'", sort, order);
+                response.put("success", false);
+                response.put("message", "Arrr! We line up the treasure by rating, year, duration or name, asc or desc, and nothin' else, ye scallywag!");
+                response.put("movies", List.of());
+                response.put("count", 0);
+                return ResponseEntity.badRequest().body(response);
+            }
+            
+            // Validate paging parameters if provided
+            if (!isValidPage(limit, cursor)) {
+                logger.warn("Blimey! Invalid paging parameters provided - limit: {}, cursor: '{}'", limit, cursor);
+                response.put("success", false);
+                response.put("message", "Arrr! That page marker be lost at sea! Use a positive limit and the nextCursor we gave ye, ye scallywag!");
+                response.put("movies", List.of());
+                response.put("count", 0);
+                return ResponseEntity.badRequest().body(response);
+            }
+            
+            // Sorted pages are walked out of the catalog's pre-sorted orders, filtered or not
+            if (movieSort != null) {
+                boolean descending = order != null ? "desc".equals(MovieSearchCriteria.searchKey(order)) : movieSort.isDescendingByDefault();
+                MoviePage page = movieService.searchSorted(criteria, movieSort, descending, cursor, limit);
+                logger.info("Found {} movies sorted by {}", page.getTotal(), movieSort.key());
+                response.put("success", true);
+                response.put("message", sortedMessage(page.getTotal(), movieSort));
+                response.put("sort", movieSort.key());
+                response.put("order", descending ? "desc" : "asc");
+                putPage(response, page, movieService.getCatalog());
+                return ResponseEntity.ok(response);
+            }
+            
             // Check if at least one search parameter is provided
-            if ((name == null || name.trim().isEmpty()) && 
-                id == null && 
-                (genre == null || genre.trim().isEmpty())) {
+            if (!criteria.hasCriteria()) {
                 
                 logger.info("No search criteria provided, returning all movies");
-                List<Movie> allMovies = movieService.getAllMovies();
-                response.put("success", true);
-                response.put("message", "Ahoy! No search criteria provided, so here be all the treasure in our chest!");
-                response.put("movies", allMovies);
-                response.put("count", allMovies.size());
-                return ResponseEntity.ok(response);
+                // Same bytes for every caller until the catalog changes, so they're encoded once
+                String pageKey = "/movies/search?limit=" + MoviePage.clampLimit(limit)
+                        + "&cursor=" + (cursor == null ? "" : cursor.trim());
+                return precompressedResponses.respond(pageKey, acceptEncoding, () -> {
+                    MoviePage page = MoviePage.of(movieService.getAllMovies(), cursor, limit);
+                    response.put("success", true);
+                    response.put("message", "Ahoy! No search criteria provided, so here be all the treasure in our chest!");
+                    putPage(response, page, movieService.getCatalog());
+                    return response;
+                });
             }
             
             // Perform the search
-            List<Movie> searchResults = movieService.searchMovies(name, id, genre);
+            List<Movie> searchResults = movieService.searchMovies(criteria);
             
             if (searchResults.isEmpty()) {
                 logger.info("No movies found matching search criteria");
                 response.put("success", true);
                 response.put("message", "Shiver me timbers! No movies found matching yer search criteria. The treasure chest be empty for this quest, matey!");
-                response.put("movies", searchResults);
-                response.put("count", 0);
+                putPage(response, MoviePage.ofSlice(searchResults, 0, false), movieService.getCatalog());
                 return ResponseEntity.ok(response);
             } else {
                 logger.info("Found {} movies matching search criteria", searchResults.size());
@@ -86,8 +181,10 @@ public class MovieSearchController {
                 
                 response.put("success", true);
                 response.put("message", pirateMessage);
-                response.put("movies", searchResults);
-                response.put("count", searchResults.size());
+                MoviePage page = criteria.isRanked()
+                        ? MoviePage.ofRanked(searchResults, cursor, limit)
+                        : MoviePage.of(searchResults, cursor, limit);
+                putPage(response, page, movieService.getCatalog());
                 return ResponseEntity.ok(response);
             }
             
@@ -101,25 +198,244 @@ public class MovieSearchController {
         }
     }
 
+    /**
+     * Streams every movie matching the criteria as newline-delimited JSON, one movie per line,
+     * for clients that send {@code Accept: application/x-ndjson}. The summary that the JSON
+     * endpoint puts up front ({@code success}, {@code message}, {@code count}) arrives as a final
+     * trailer line. Paging parameters don't apply; every match is streamed, in ID order even for
+     * a fuzzy name search.
+     * 
+     * @param criteria Search criteria bound from the same query parameters as /movies/search
+     * @return NDJSON body written while the search runs
+     */
+    @GetMapping(value = "/movies/search", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamMovies(MovieSearchCriteria criteria) {
+        logger.info("Ahoy! Received streaming search request - {}", criteria);
+        
+        String invalidMessage = criteria.validate();
+        if (invalidMessage != null) {
+            logger.warn("Blimey! Invalid streaming search request: {}", criteria);
+            return ResponseEntity.badRequest().contentType(NDJSON).body(out -> writeTrailer(out, false, invalidMessage, 0));
+        }
+        
+        return ResponseEntity.ok().contentType(NDJSON).body(out -> {
+            BufferedOutputStream buffered = new BufferedOutputStream(out, STREAM_BUFFER_BYTES);
+            ObjectWriter writer = objectMapper.writer();
+            MovieJson json = movieService.getCatalog().getJson();
+            int[] written = {0};
+            int count;
+            try {
+                count = movieService.forEachMatch(criteria, movie -> {
+                    try {
+                        if (!json.writeTo(movie, buffered)) {
+                            buffered.write(writer.writeValueAsBytes(movie));
+                        }
+                        buffered.write('\n');
+                        if (++written[0] % STREAM_FLUSH_EVERY == 0) {
+                            buffered.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                // Usually the client hung up mid-stream; nothing more can be written
+                logger.warn("Arrr! Streaming search aborted: {}", e.getCause().getMessage());
+                return;
+            } catch (Exception e) {
+                logger.error("Arrr! Error occurred during streaming movie search: {}", e.getMessage(), e);
+                writeTrailer(buffered, false, "Blimey! Something went wrong while searching the treasure chest. Try again later, ye landlubber!", written[0]);
+                buffered.flush();
+                return;
+            }
+            
+            String message;
+            if (count == 0) {
+                message = "Shiver me timbers! No movies found matching yer search criteria. The treasure chest be empty for this quest, matey!";
+            } else if (count == 1) {
+                message = "Yo ho ho! Found one fine movie treasure for ye!";
+            } else {
+                message = String.format("Batten down the hatches! Found %d movie treasures matching yer search, ye savvy sailor!", count);
+            }
+            writeTrailer(buffered, true, message, count);
+            buffered.flush();
+        });
+    }
+
+    /**
+     * Same as {@link #streamMovies} for clients that can't set the Accept header: {@code ?stream=true}.
+     */
+    @GetMapping(value = "/movies/search", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamMoviesByParam(MovieSearchCriteria criteria) {
+        return streamMovies(criteria);
+    }
+
+    private void writeTrailer(OutputStream out, boolean success, String message, int count) throws IOException {
+        Map<String, Object> trailer = new LinkedHashMap<>();
+        trailer.put("success", success);
+        trailer.put("message", message);
+        trailer.put("count", count);
+        out.write(objectMapper.writeValueAsBytes(trailer));
+        out.write('\n');
+    }
+
+    private static boolean isValidPage(Integer limit, String cursor) {
+        try {
+            MoviePage.clampLimit(limit);
+            if (cursor != null && !cursor.trim().isEmpty()) {
+                MoviePage.decodeCursor(cursor);
+            }
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static boolean isValidOrder(String order) {
+        String key = MovieSearchCriteria.searchKey(order);
+        return "asc".equals(key) || "desc".equals(key);
+    }
+
+    private static String sortedMessage(int total, MovieSort sort) {
+        if (total == 0) {
+            return "Shiver me timbers! No movies found matching yer search criteria. The treasure chest be empty for this quest, matey!";
+        }
+        return total == 1
+                ? "Yo ho ho! Found one fine movie treasure for ye!"
+                : String.format("Batten down the hatches! Found %d movie treasures, lined up by %s, ye savvy sailor!", total, sort.key());
+    }
+
+    private static void putPage(Map<String, Object> response, MoviePage page, MovieCatalog catalog) {
+        // Splice in the catalog's pre-serialized movies rather than reflecting over each one
+        response.put("movies", catalog.getJson().array(page.getMovies()));
+        response.put("count", page.getMovies().size());
+        response.put("total", page.getTotal());
+        response.put("nextCursor", page.getNextCursor());
+    }
+
+    /**
+     * Count the movies matching the search criteria per genre token, decade, director and
+     * rating band, so a search form can show how many treasures lie behind each choice.
+     * Takes the same filters as /movies/search; with none, counts the whole catalog.
+     * 
+     * @param criteria Search criteria bound from the /movies/search query parameters
+     * @return JSON response with the facet counts and pirate-themed messages
+     */
+    @GetMapping("/movies/facets")
+    public ResponseEntity<Map<String, Object>> getFacets(MovieSearchCriteria criteria) {
+        logger.info("Ahoy! Received facet request - {}", criteria);
+        
+        Map<String, Object> response = new HashMap<>();
+        
+        String invalidMessage = criteria.validate();
+        if (invalidMessage != null) {
+            logger.warn("Blimey! Invalid facet request: {}", criteria);
+            response.put("success", false);
+            response.put("message", invalidMessage);
+            response.put("total", 0);
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        try {
+            MovieFacets facets = movieService.getFacets(criteria);
+            Map<String, Object> counts = new LinkedHashMap<>();
+            counts.put("genres", facets.getGenres());
+            counts.put("decades", facets.getDecades());
+            counts.put("directors", facets.getDirectors());
+            counts.put("ratingBands", facets.getRatingBands());
+            response.put("success", true);
+            response.put("message", String.format("Here be the lay of the land across %d movie treasures, matey!", facets.getTotal()));
+            response.put("total", facets.getTotal());
+            response.put("facets", counts);
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            logger.error("Arrr! Error occurred while counting facets: {}", e.getMessage(), e);
+            response.put("success", false);
+            response.put("message", "Blimey! Couldn't count the treasures in the chest. Try again later!");
+            response.put("total", 0);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Suggest titles and directors for a search box as the user types. Each suggestion's text, or
+     * one of its words, starts with the prefix; the highest rated come first. Answered from the
+     * catalog's suggestion tries in time proportional to the prefix length, so it's cheap enough
+     * to call on every keystroke (and logs at debug level only for the same reason).
+     * 
+     * @param prefix What has been typed so far (required)
+     * @param limit Most suggestions of each kind (optional, defaults to and capped at 10)
+     * @return JSON response with the title and director suggestions
+     */
+    @GetMapping("/movies/suggest")
+    public ResponseEntity<Map<String, Object>> suggest(
+            @RequestParam(value = "prefix", required = false) String prefix,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        logger.debug("Ahoy! Received suggestion request - prefix: '{}', limit: {}", prefix, limit);
+        
+        Map<String, Object> response = new HashMap<>();
+        
+        if (prefix == null || prefix.trim().isEmpty() || (limit != null && limit <= 0)) {
+            logger.warn("Blimey! Invalid suggestion request - prefix: '{}', limit: {}", prefix, limit);
+            response.put("success", false);
+            response.put("message", "Arrr! Give us the first letters of a title or director and a positive limit, ye scallywag!");
+            response.put("titles", List.of());
+            response.put("directors", List.of());
+            response.put("count", 0);
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        try {
+            String key = MovieSearchCriteria.searchKey(prefix);
+            int max = limit == null ? SuggestionIndex.TOP_K : Math.min(limit, SuggestionIndex.TOP_K);
+            MovieCatalog catalog = movieService.getCatalog();
+            List<SuggestionIndex.Suggestion> titles = catalog.getTitleSuggestions().suggest(key, max);
+            List<SuggestionIndex.Suggestion> directors = catalog.getDirectorSuggestions().suggest(key, max);
+            response.put("success", true);
+            response.put("message", titles.isEmpty() && directors.isEmpty()
+                    ? "Shiver me timbers! Nothing in the chest starts that way, matey!"
+                    : "Ahoy! Here be what ye might be lookin' for, matey!");
+            response.put("prefix", prefix);
+            response.put("titles", titles);
+            response.put("directors", directors);
+            response.put("count", titles.size() + directors.size());
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            logger.error("Arrr! Error occurred while suggesting: {}", e.getMessage(), e);
+            response.put("success", false);
+            response.put("message", "Blimey! Couldn't find any suggestions in the treasure chest. Try again later!");
+            response.put("titles", List.of());
+            response.put("directors", List.of());
+            response.put("count", 0);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
     /**
      * Get all available genres from the movie treasure chest.
      * Useful for populating search forms, arrr!
      * 
+     * @param acceptEncoding Accept-Encoding header; the list is served pre-compressed
      * @return JSON response with all available genres
      */
     @GetMapping("/movies/genres")
-    public ResponseEntity<Map<String, Object>> getAllGenres() {
+    public ResponseEntity<?> getAllGenres(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         logger.info("Ahoy! Fetching all available movie genres");
         
         Map<String, Object> response = new HashMap<>();
         
         try {
-            List<String> genres = movieService.getAllGenres();
-            response.put("success", true);
-            response.put("message", "Here be all the movie genres in our treasure chest, matey!");
-            response.put("genres", genres);
-            response.put("count", genres.size());
-            return ResponseEntity.ok(response);
+            return precompressedResponses.respond("/movies/genres", acceptEncoding, () -> {
+                List<String> genres = movieService.getAllGenres();
+                response.put("success", true);
+                response.put("message", "Here be all the movie genres in our treasure chest, matey!");
+                response.put("genres", genres);
+                response.put("count", genres.size());
+                return response;
+            });
             
         } catch (Exception e) {
             logger.error("Arrr! Error occurred while fetching genres: {}", e.getMessage(), e);
@@ -0,0 +1,218 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Criteria for an advanced movie search. Every field is optional; unset fields don't filter.
+ */
+public class MovieSearchCriteria {
+    private String name;
+    private String q;
+    private Long id;
+    private String genre;
+    private String director;
+    private Integer minYear;
+    private Integer maxYear;
+    private Double minRating;
+    private Integer maxDuration;
+    private boolean fuzzy;
+    private Integer maxEdits;
+
+    public MovieSearchCriteria() {
+    }
+
+    public MovieSearchCriteria(String name, Long id, String genre) {
+        this.name = name;
+        this.id = id;
+        this.genre = genre;
+    }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getQ() { return q; }
+    public void setQ(String q) { this.q = q; }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getGenre() { return genre; }
+    public void setGenre(String genre) { this.genre = genre; }
+
+    public String getDirector() { return director; }
+    public void setDirector(String director) { this.director = director; }
+
+    public Integer getMinYear() { return minYear; }
+    public void setMinYear(Integer minYear) { this.minYear = minYear; }
+
+    public Integer getMaxYear() { return maxYear; }
+    public void setMaxYear(Integer maxYear) { this.maxYear = maxYear; }
+
+    public Double getMinRating() { return minRating; }
+    public void setMinRating(Double minRating) { this.minRating = minRating; }
+
+    public Integer getMaxDuration() { return maxDuration; }
+    public void setMaxDuration(Integer maxDuration) { this.maxDuration = maxDuration; }
+
+    public boolean isFuzzy() { return fuzzy; }
+    public void setFuzzy(boolean fuzzy) { this.fuzzy = fuzzy; }
+
+    public Integer getMaxEdits() { return maxEdits; }
+    public void setMaxEdits(Integer maxEdits) { this.maxEdits = maxEdits; }
+
+    /**
+     * @return Edits allowed per word of a fuzzy name search, defaulting to and capped at
+     *         {@link FuzzyTitleIndex#MAX_EDITS}
+     */
+    public int getEditLimit() {
+        return maxEdits == null ? FuzzyTitleIndex.MAX_EDITS : Math.max(0, Math.min(maxEdits, FuzzyTitleIndex.MAX_EDITS));
+    }
+
+    public boolean hasName() {
+        return isPresent(name);
+    }
+
+    /**
+     * @return Whether a full-text query over titles and descriptions is set
+     */
+    public boolean hasQuery() {
+        return isPresent(q);
+    }
+
+    public boolean hasGenre() {
+        return isPresent(genre);
+    }
+
+    public boolean hasDirector() {
+        return isPresent(director);
+    }
+
+    /**
+     * @return Whether any of the columnar range filters (year, rating, duration, director) are set
+     */
+    public boolean hasRangeFilters() {
+        return minYear != null || maxYear != null || minRating != null || maxDuration != null || hasDirector();
+    }
+
+    /**
+     * @return Whether results are ranked rather than listed by ID: by relevance for a full-text
+     *         query, otherwise by title distance for a typo-tolerant name filter
+     */
+    public boolean isRanked() {
+        return hasQuery() || (fuzzy && hasName());
+    }
+
+    /**
+     * @return Whether any filter at all is set
+     */
+    public boolean hasCriteria() {
+        return hasName() || hasQuery() || id != null || hasGenre() || hasRangeFilters();
+    }
+
+    /**
+     * Checks the filters every search endpoint rejects: a non-positive ID, a year range that
+     * points backwards, a negative or NaN rating, a non-positive duration, or an edit limit
+     * outside 1 to {@link FuzzyTitleIndex#MAX_EDITS}.
+     *
+     * @return Pirate-themed message describing the first problem, or null if the criteria are valid
+     */
+    public String validate() {
+        if (id != null && id <= 0) {
+            return "Arrr! That ID be as useless as a compass that points south! Provide a valid movie ID, ye scallywag!";
+        }
+        if ((minYear != null && maxYear != null && minYear > maxYear) ||
+            (minRating != null && (minRating < 0 || minRating.isNaN())) ||
+            (maxDuration != null && maxDuration <= 0)) {
+            return "Arrr! Them range filters be pointin' every which way! Check yer years, rating and duration, ye scallywag!";
+        }
+        if (maxEdits != null && (maxEdits < 1 || maxEdits > FuzzyTitleIndex.MAX_EDITS)) {
+            return "Arrr! A fuzzy search forgives one or two slips of the quill per word, no more and no fewer, ye scallywag!";
+        }
+        return null;
+    }
+
+    /**
+     * Copies the criteria into canonical form: text filters trimmed and lowercased, blank text and
+     * non-positive IDs dropped. Searches match case-insensitively, so the copy finds the same
+     * movies and equal queries compare equal, which makes it a sound cache key.
+     *
+     * @return Normalized copy of these criteria
+     */
+    public MovieSearchCriteria normalized() {
+        MovieSearchCriteria normalized = new MovieSearchCriteria(
+                normalize(name), id != null && id > 0 ? id : null, normalize(genre));
+        normalized.q = normalize(q);
+        normalized.director = normalize(director);
+        normalized.minYear = minYear;
+        normalized.maxYear = maxYear;
+        normalized.minRating = minRating;
+        normalized.maxDuration = maxDuration;
+        // Fuzziness only shapes the name filter, so without one it's dropped
+        if (normalized.hasName() && fuzzy) {
+            normalized.fuzzy = true;
+            normalized.maxEdits = getEditLimit();
+        }
+        return normalized;
+    }
+
+    /**
+     * @return Normalized copy of these criteria without the full-text query, i.e. just the filters
+     */
+    public MovieSearchCriteria withoutQuery() {
+        MovieSearchCriteria filters = normalized();
+        filters.q = null;
+        return filters;
+    }
+
+    private static String normalize(String value) {
+        return isPresent(value) ? searchKey(value) : null;
+    }
+
+    /**
+     * Folds a search term or indexed value to the form every index compares in: trimmed and
+     * lowercased with {@link Locale#ROOT}, so matching doesn't depend on the server's locale.
+     */
+    public static String searchKey(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isPresent(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        MovieSearchCriteria that = (MovieSearchCriteria) o;
+        return Objects.equals(name, that.name)
+                && Objects.equals(q, that.q)
+                && Objects.equals(id, that.id)
+                && Objects.equals(genre, that.genre)
+                && Objects.equals(director, that.director)
+                && Objects.equals(minYear, that.minYear)
+                && Objects.equals(maxYear, that.maxYear)
+                && Objects.equals(minRating, that.minRating)
+                && Objects.equals(maxDuration, that.maxDuration)
+                && fuzzy == that.fuzzy
+                && Objects.equals(maxEdits, that.maxEdits);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, q, id, genre, director, minYear, maxYear, minRating, maxDuration, fuzzy, maxEdits);
+    }
+
+    @Override
+    public String toString() {
+        return "MovieSearchCriteria{name='" + name + "', q='" + q + "', id=" + id + ", genre='" + genre
+                + "', director='" + director + "', minYear=" + minYear + ", maxYear=" + maxYear
+                + ", minRating=" + minRating + ", maxDuration=" + maxDuration
+                + ", fuzzy=" + fuzzy + ", maxEdits=" + maxEdits + "}";
+    }
+}
@@ -1,73 +1,338 @@
 package com.amazonaws.samples.qdevmovies.movies;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import reactor.core.publisher.Flux;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.Scanner;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 @Service
 public class MovieService {
     private static final Logger logger = LogManager.getLogger(MovieService.class);
-    private final List<Movie> movies;
-    private final Map<Long, Movie> movieMap;
+    private static final String MOVIES_RESOURCE = "movies.json";
+    /** System property naming a movies.json file to load instead of the bundled classpath resource */
+    public static final String CATALOG_PATH_PROPERTY = "movies.catalog.path";
+    /**
+     * System property naming the binary catalog snapshot file, in a directory only the app can
+     * write to; unset or empty always loads the JSON
+     */
+    public static final String SNAPSHOT_PATH_PROPERTY = "movies.snapshot.path";
+    private static final long DEFAULT_SEARCH_CACHE_MAXIMUM_WEIGHT = 1_000_000;
+    private static final Duration DEFAULT_SEARCH_CACHE_TTL = Duration.ofMinutes(10);
+
+    private final MovieCatalogLoader catalogLoader = new MovieCatalogLoader();
+    private final ObjectMapper objectMapper;
+    private final List<Consumer<MovieCatalog>> catalogListeners = new CopyOnWriteArrayList<>();
+    private volatile MovieCatalog catalog;
+    private volatile Cache<SearchKey, List<Movie>> searchCache;
+    private volatile MovieMetrics metrics = MovieMetrics.NOOP;
 
+    /**
+     * Loads movies.json outside a Spring context, caching the movies' JSON as a default
+     * ObjectMapper writes it.
+     */
     public MovieService() {
-        this.movies = loadMoviesFromJson();
-        this.movieMap = new HashMap<>();
-        for (Movie movie : movies) {
-            movieMap.put(movie.getId(), movie);
+        this(new ObjectMapper());
+    }
+
+    /**
+     * Loads movies.json, caching the movies' JSON as the application's mapper writes it so the
+     * spliced responses match regular serialization.
+     * 
+     * @param objectMapper The application's Jackson mapper
+     */
+    @Autowired
+    public MovieService(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.catalog = new MovieCatalog(loadMovies(), objectMapper);
+        this.searchCache = buildSearchCache(DEFAULT_SEARCH_CACHE_MAXIMUM_WEIGHT, DEFAULT_SEARCH_CACHE_TTL);
+    }
+
+    /**
+     * Serves the given movies instead of loading movies.json, e.g. synthetic catalogs for
+     * benchmarks and scale tests. {@link #reloadCatalog()} still reloads from movies.json.
+     * 
+     * @param movies Catalog to index, in any order
+     */
+    public MovieService(List<Movie> movies) {
+        this.objectMapper = new ObjectMapper();
+        this.catalog = new MovieCatalog(new ArrayList<>(movies), objectMapper);
+        this.searchCache = buildSearchCache(DEFAULT_SEARCH_CACHE_MAXIMUM_WEIGHT, DEFAULT_SEARCH_CACHE_TTL);
+    }
+
+    /**
+     * Applies the search cache limits from configuration. The weight of an entry is the number
+     * of movies in its result list (plus one), so the bound is on cached movie references.
+     * 
+     * @param maximumWeight Upper bound on cached movie references across all entries; 0 disables the cache
+     * @param ttl How long a cached result lives after it was computed
+     */
+    @Autowired
+    public void configureSearchCache(
+            @Value("${movies.search-cache.maximum-weight:1000000}") long maximumWeight,
+            @Value("${movies.search-cache.ttl:10m}") Duration ttl) {
+        this.searchCache = buildSearchCache(maximumWeight, ttl);
+        if (maximumWeight > 0) {
+            logger.info("Search cache bounded to {} cached movies with a TTL of {}", maximumWeight, ttl);
+        } else {
+            logger.info("Search cache disabled, every search runs the indexes");
+        }
+    }
+
+    /**
+     * Publishes search latency, result sizes, search cache counters and catalog/index gauges to
+     * the registry. Gauges read the current catalog, so they follow reloads.
+     * 
+     * @param registry Registry backing the actuator metrics endpoint
+     */
+    @Autowired(required = false)
+    public void bindMetrics(MeterRegistry registry) {
+        this.metrics = new MovieMetrics(registry);
+        Gauge.builder("movies.catalog.size", this, service -> service.getCatalog().size())
+                .description("Movies in the loaded catalog")
+                .register(registry);
+        Gauge.builder("movies.catalog.title.trigrams", this, service -> service.getCatalog().getTitleIndex().trigramCount())
+                .description("Distinct trigrams in the title index")
+                .register(registry);
+        Gauge.builder("movies.catalog.text.terms", this, service -> service.getCatalog().getTextIndex().termCount())
+                .description("Distinct terms in the full-text index")
+                .register(registry);
+        Gauge.builder("movies.catalog.text.postings.bytes", this, service -> service.getCatalog().getTextIndex().postingBytes())
+                .description("Encoded postings of the full-text index")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("movies.catalog.genre.tokens", this, service -> service.getCatalog().getGenreIndex().getTokens().size())
+                .description("Distinct genre tokens in the genre index")
+                .register(registry);
+        Gauge.builder("movies.catalog.directors", this, service -> service.getCatalog().getColumns().getDirectorCount())
+                .description("Distinct directors in the columnar catalog")
+                .register(registry);
+        Gauge.builder("movies.catalog.column.bytes", this, service -> service.getCatalog().getColumns().estimateColumnBytes())
+                .description("Approximate heap held by the catalog columns")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("movies.catalog.load.rate", catalogLoader, MovieCatalogLoader::getRecordsPerSecond)
+                .description("Records per second of the last JSON catalog load")
+                .register(registry);
+        Gauge.builder("movies.search.cache.size", this, MovieService::getSearchCacheSize)
+                .description("Approximate number of cached search results")
+                .register(registry);
+        FunctionCounter.builder("movies.search.cache.requests", this, service -> service.getSearchCacheStats().hitCount())
+                .description("Search cache lookups")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("movies.search.cache.requests", this, service -> service.getSearchCacheStats().missCount())
+                .description("Search cache lookups")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("movies.search.cache.evictions", this, service -> service.getSearchCacheStats().evictionCount())
+                .description("Search results evicted from the cache")
+                .register(registry);
+    }
+
+    private static Cache<SearchKey, List<Movie>> buildSearchCache(long maximumWeight, Duration ttl) {
+        if (maximumWeight <= 0) {
+            return null;
         }
+        // Caffeine's W-TinyLFU admission keeps the popular queries resident under a skewed workload
+        return Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((SearchKey key, List<Movie> results) -> results.size() + 1)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Reloads the catalog from its source and swaps it in atomically. Cached search results are
+     * dropped and catalog listeners are told about the new catalog.
+     * 
+     * @return The new catalog version
+     */
+    public String reloadCatalog() {
+        MovieCatalog reloaded = new MovieCatalog(loadMovies(), objectMapper);
+        MovieCatalog previous = this.catalog;
+        this.catalog = reloaded;
+        if (!reloaded.getVersion().equals(previous.getVersion())) {
+            Cache<SearchKey, List<Movie>> cache = searchCache;
+            if (cache != null) {
+                cache.invalidateAll();
+            }
+            logger.info("Catalog changed from version {} to {}, search cache invalidated", previous.getVersion(), reloaded.getVersion());
+            for (Consumer<MovieCatalog> listener : catalogListeners) {
+                listener.accept(reloaded);
+            }
+        }
+        return reloaded.getVersion();
+    }
+
+    /**
+     * Registers a callback run whenever a reload swaps in a catalog with a new version.
+     */
+    public void addCatalogListener(Consumer<MovieCatalog> listener) {
+        catalogListeners.add(listener);
+    }
+
+    /**
+     * @return The current indexed catalog
+     */
+    public MovieCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * @return Content hash of the loaded catalog; changes whenever any movie changes
+     */
+    public String getCatalogVersion() {
+        return catalog.getVersion();
+    }
+
+    /**
+     * @return Hit, miss, eviction and load-latency counters of the search result cache
+     */
+    public CacheStats getSearchCacheStats() {
+        Cache<SearchKey, List<Movie>> cache = searchCache;
+        return cache != null ? cache.stats() : CacheStats.empty();
+    }
+
+    /**
+     * @return Approximate number of cached search results
+     */
+    public long getSearchCacheSize() {
+        Cache<SearchKey, List<Movie>> cache = searchCache;
+        return cache != null ? cache.estimatedSize() : 0;
+    }
+
+    /**
+     * Loads the catalog from the binary snapshot, if one is configured and matches movies.json,
+     * otherwise streams the JSON and refreshes the snapshot for the next start.
+     */
+    private List<Movie> loadMovies() {
+        String snapshotPath = System.getProperty(SNAPSHOT_PATH_PROPERTY, "");
+        if (snapshotPath.trim().isEmpty()) {
+            return loadMoviesFromJson();
+        }
+
+        CatalogSnapshot snapshot = new CatalogSnapshot(Paths.get(snapshotPath));
+        CatalogSnapshot.Fingerprint source;
+        try {
+            source = catalogSourceFingerprint();
+        } catch (IOException e) {
+            logger.warn("Couldn't stat {}, skipping the catalog snapshot: {}", catalogSourceName(), e.getMessage());
+            return loadMoviesFromJson();
+        }
+        if (source == null) {
+            logger.info("No size and time known for {}, skipping the catalog snapshot", catalogSourceName());
+            return loadMoviesFromJson();
+        }
+
+        long start = System.nanoTime();
+        List<Movie> snapshotMovies = snapshot.read(source);
+        if (snapshotMovies != null) {
+            logger.info("Loaded {} movies from catalog snapshot {} in {} ms",
+                    snapshotMovies.size(), snapshot.getPath(), (System.nanoTime() - start) / 1_000_000);
+            return snapshotMovies;
+        }
+
+        List<Movie> jsonMovies = loadMoviesFromJson();
+        if (!jsonMovies.isEmpty()) {
+            try {
+                snapshot.write(jsonMovies, source);
+            } catch (IOException e) {
+                logger.warn("Couldn't write catalog snapshot {}: {}", snapshot.getPath(), e.getMessage());
+            }
+        }
+        return jsonMovies;
     }
 
     private List<Movie> loadMoviesFromJson() {
-        List<Movie> movieList = new ArrayList<>();
         try {
-            InputStream inputStream = getClass().getClassLoader().getResourceAsStream("movies.json");
+            InputStream inputStream = openCatalogSource();
             if (inputStream != null) {
-                Scanner scanner = new Scanner(inputStream, StandardCharsets.UTF_8.name());
-                String jsonContent = scanner.useDelimiter("\\A").next();
-                scanner.close();
-                
-                JSONArray moviesArray = new JSONArray(jsonContent);
-                for (int i = 0; i < moviesArray.length(); i++) {
-                    JSONObject movieObj = moviesArray.getJSONObject(i);
-                    movieList.add(new Movie(
-                        movieObj.getLong("id"),
-                        movieObj.getString("movieName"),
-                        movieObj.getString("director"),
-                        movieObj.getInt("year"),
-                        movieObj.getString("genre"),
-                        movieObj.getString("description"),
-                        movieObj.getInt("duration"),
-                        movieObj.getDouble("imdbRating")
-                    ));
-                }
+                return catalogLoader.load(inputStream);
             }
+            logger.error("Failed to load movies from JSON: {} not found", catalogSourceName());
         } catch (Exception e) {
             logger.error("Failed to load movies from JSON: {}", e.getMessage());
         }
-        return movieList;
+        return new ArrayList<>();
+    }
+
+    /**
+     * Opens the catalog JSON: the file named by {@link #CATALOG_PATH_PROPERTY} if set, otherwise
+     * the bundled movies.json.
+     * 
+     * @return The catalog stream, or null if the bundled resource is missing
+     */
+    private InputStream openCatalogSource() throws IOException {
+        String catalogPath = System.getProperty(CATALOG_PATH_PROPERTY, "");
+        if (!catalogPath.trim().isEmpty()) {
+            return Files.newInputStream(Paths.get(catalogPath));
+        }
+        return getClass().getClassLoader().getResourceAsStream(MOVIES_RESOURCE);
+    }
+
+    /**
+     * @return Size and time of the catalog JSON, or null if the bundled resource is missing or
+     *         its connection doesn't report them
+     */
+    private CatalogSnapshot.Fingerprint catalogSourceFingerprint() throws IOException {
+        String catalogPath = System.getProperty(CATALOG_PATH_PROPERTY, "");
+        if (!catalogPath.trim().isEmpty()) {
+            return CatalogSnapshot.Fingerprint.of(Paths.get(catalogPath));
+        }
+        URL resource = getClass().getClassLoader().getResource(MOVIES_RESOURCE);
+        return resource != null ? CatalogSnapshot.Fingerprint.of(resource) : null;
     }
 
+    private String catalogSourceName() {
+        String catalogPath = System.getProperty(CATALOG_PATH_PROPERTY, "");
+        return catalogPath.trim().isEmpty() ? MOVIES_RESOURCE : catalogPath;
+    }
+
+    /**
+     * @return Statistics (records/sec, peak heap) from the startup catalog load
+     */
+    public MovieCatalogLoader getCatalogLoader() {
+        return catalogLoader;
+    }
+
+    /**
+     * @return Every movie, in ascending ID order
+     */
     public List<Movie> getAllMovies() {
-        return movies;
+        return catalog.getMovies();
     }
 
     public Optional<Movie> getMovieById(Long id) {
         if (id == null || id <= 0) {
             return Optional.empty();
         }
-        return Optional.ofNullable(movieMap.get(id));
+        MovieCatalog current = catalog;
+        Integer ordinal = current.ordinalOf(id);
+        return ordinal != null ? Optional.of(current.getMovies().get(ordinal)) : Optional.empty();
     }
 
     /**
@@ -80,15 +345,14 @@ public class MovieService {
     public List<Movie> searchMoviesByName(String name) {
         if (name == null || name.trim().isEmpty()) {
             logger.info("Arrr! Empty search name provided, returning all treasure (movies)");
-            return new ArrayList<>(movies);
+            return new ArrayList<>(catalog.getMovies());
         }
         
-        String searchTerm = name.trim().toLowerCase();
+        String searchTerm = MovieSearchCriteria.searchKey(name);
         logger.info("Ahoy! Searching for movies with name containing: {}", searchTerm);
         
-        List<Movie> results = movies.stream()
-            .filter(movie -> movie.getMovieName().toLowerCase().contains(searchTerm))
-            .collect(java.util.stream.Collectors.toList());
+        MovieCatalog current = catalog;
+        List<Movie> results = current.moviesAt(current.getTitleIndex().search(searchTerm));
             
         logger.info("Arrr! Found {} movies matching yer search, matey!", results.size());
         return results;
@@ -104,15 +368,14 @@ public class MovieService {
     public List<Movie> searchMoviesByGenre(String genre) {
         if (genre == null || genre.trim().isEmpty()) {
             logger.info("Arrr! No genre specified, returning all treasure (movies)");
-            return new ArrayList<>(movies);
+            return new ArrayList<>(catalog.getMovies());
         }
         
-        String searchGenre = genre.trim().toLowerCase();
+        String searchGenre = MovieSearchCriteria.searchKey(genre);
         logger.info("Ahoy! Searching for movies in genre: {}", searchGenre);
         
-        List<Movie> results = movies.stream()
-            .filter(movie -> movie.getGenre().toLowerCase().contains(searchGenre))
-            .collect(java.util.stream.Collectors.toList());
+        MovieCatalog current = catalog;
+        List<Movie> results = current.moviesAt(current.getGenreIndex().search(searchGenre));
             
         logger.info("Shiver me timbers! Found {} movies in that genre, ye scallywag!", results.size());
         return results;
@@ -128,44 +391,157 @@ public class MovieService {
      * @return List of movies matching all provided criteria
      */
     public List<Movie> searchMovies(String name, Long id, String genre) {
-        logger.info("Ahoy matey! Starting advanced search with name: '{}', id: {}, genre: '{}'", 
-                   name, id, genre);
-        
-        List<Movie> results = new ArrayList<>(movies);
+        return searchMovies(new MovieSearchCriteria(name, id, genre));
+    }
+
+    /**
+     * Search with the full set of criteria, including the year, rating, duration and director
+     * range filters served from the columnar catalog. Results are cached per normalized query
+     * and catalog version.
+     * 
+     * @param criteria The search criteria; unset fields don't filter
+     * @return Unmodifiable list of movies matching all provided criteria, in ascending ID order,
+     *         most relevant first for a full-text query, or closest title first for a fuzzy name
+     *         search
+     */
+    public List<Movie> searchMovies(MovieSearchCriteria criteria) {
+        logger.info("Ahoy matey! Starting advanced search with {}", criteria);
         
-        // Filter by ID first if provided (most specific)
-        if (id != null && id > 0) {
-            Optional<Movie> movieById = getMovieById(id);
-            if (movieById.isPresent()) {
-                results = java.util.Arrays.asList(movieById.get());
-                logger.info("Arrr! Found specific movie by ID: {}", id);
-            } else {
-                logger.warn("Blimey! No movie found with ID: {}", id);
-                return new ArrayList<>(); // Return empty list if specific ID not found
-            }
+        long start = System.nanoTime();
+        MovieCatalog current = catalog;
+        MovieMetrics searchMetrics = metrics;
+        SearchKey key = new SearchKey(current.getVersion(), criteria.normalized());
+        Cache<SearchKey, List<Movie>> cache = searchCache;
+        List<Movie> results = cache != null
+                ? cache.get(key, k -> search(current, k.criteria, searchMetrics))
+                : search(current, key.criteria, searchMetrics);
+        searchMetrics.recordSearch(System.nanoTime() - start, results.size());
+        logger.info("Yo ho ho! Search complete! Found {} movies matching yer criteria, ye savvy sailor!", 
+                   results.size());
+        return results;
+    }
+
+    private static List<Movie> search(MovieCatalog current, MovieSearchCriteria criteria, MovieMetrics searchMetrics) {
+        if (criteria.hasQuery()) {
+            return Collections.unmodifiableList(current.findTextMatches(criteria, searchMetrics));
         }
-        
-        // Filter by name if provided
-        if (name != null && !name.trim().isEmpty()) {
-            String searchName = name.trim().toLowerCase();
-            results = results.stream()
-                .filter(movie -> movie.getMovieName().toLowerCase().contains(searchName))
-                .collect(java.util.stream.Collectors.toList());
-            logger.info("Filtered by name '{}', {} movies remain", searchName, results.size());
+        if (criteria.isRanked()) {
+            return Collections.unmodifiableList(current.findFuzzyMatches(criteria, searchMetrics));
         }
+        BitSet matches = current.findMatches(criteria, searchMetrics);
+        return Collections.unmodifiableList(matches == null ? new ArrayList<>(current.getMovies()) : current.moviesAt(matches));
+    }
+
+    /**
+     * Cuts one page of the movies matching the criteria, sorted by a movie field. The page is
+     * walked out of an order sorted when the catalog loaded and the walk stops once the page is
+     * full, so the top ten of a large genre cost about as much as the top ten overall. Pages
+     * bypass the search result cache, which would hold every match to serve a handful.
+     * A full-text query or fuzzy name only filters here; the sort replaces their ranking.
+     * 
+     * @param criteria The search criteria; unset fields don't filter
+     * @param sort Field to sort by
+     * @param descending Whether the highest values come first
+     * @param cursor Cursor from the previous page, or null/empty for the first page
+     * @param limit Requested page size, or null for the default; capped at {@link MoviePage#MAX_PAGE_SIZE}
+     * @return The page, with the total number of matches
+     * @throws IllegalArgumentException If the cursor is malformed or the limit isn't positive
+     */
+    public MoviePage searchSorted(MovieSearchCriteria criteria, MovieSort sort, boolean descending, String cursor, Integer limit) {
+        logger.info("Ahoy matey! Starting search sorted by {} {} with {}", sort.key(), descending ? "desc" : "asc", criteria);
         
-        // Filter by genre if provided
-        if (genre != null && !genre.trim().isEmpty()) {
-            String searchGenre = genre.trim().toLowerCase();
-            results = results.stream()
-                .filter(movie -> movie.getGenre().toLowerCase().contains(searchGenre))
-                .collect(java.util.stream.Collectors.toList());
-            logger.info("Filtered by genre '{}', {} movies remain", searchGenre, results.size());
-        }
+        int pageSize = MoviePage.clampLimit(limit);
+        Long afterId = cursor != null && !cursor.trim().isEmpty() ? MoviePage.decodeCursor(cursor) : null;
+        long start = System.nanoTime();
+        MovieCatalog current = catalog;
+        MovieMetrics searchMetrics = metrics;
+        BitSet matches = current.findMatches(criteria, searchMetrics);
+        int total = matches == null ? current.size() : matches.cardinality();
+        // One movie past the page tells whether another page follows
+        List<Movie> movies = current.findSortedPage(matches, sort, descending, afterId, pageSize + 1, searchMetrics);
+        boolean more = movies.size() > pageSize;
+        MoviePage page = MoviePage.ofSlice(more ? movies.subList(0, pageSize) : movies, total, more);
+        searchMetrics.recordSearch(System.nanoTime() - start, total);
+        logger.info("Yo ho ho! Sorted search complete! Found {} movies, {} on this page, ye savvy sailor!",
+                   total, page.getMovies().size());
+        return page;
+    }
+
+    /**
+     * Hands each matching movie to the consumer in ascending ID order without building a result
+     * list, so callers streaming a response keep flat memory however many movies match.
+     * 
+     * @param criteria The search criteria; unset fields don't filter
+     * @param consumer Receives each match as it is found
+     * @return Number of movies handed to the consumer
+     */
+    public int forEachMatch(MovieSearchCriteria criteria, Consumer<Movie> consumer) {
+        logger.info("Ahoy matey! Starting streaming search with {}", criteria);
         
-        logger.info("Yo ho ho! Search complete! Found {} movies matching yer criteria, ye savvy sailor!", 
-                   results.size());
-        return results;
+        MovieCatalog current = catalog;
+        List<Movie> movies = current.getMovies();
+        BitSet matches = current.findMatches(criteria, metrics);
+        int count = 0;
+        if (matches == null) {
+            for (Movie movie : movies) {
+                consumer.accept(movie);
+                count++;
+            }
+        } else {
+            for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+                consumer.accept(movies.get(ordinal));
+                count++;
+            }
+        }
+        logger.info("Yo ho ho! Streamed {} movies matching yer criteria, ye savvy sailor!", count);
+        return count;
+    }
+
+    /**
+     * Publishes the movies matching the criteria in ascending ID order, one per unit of subscriber
+     * demand. The search runs on subscription and each match is only looked up when requested, so
+     * a slow subscriber holds a cursor into the catalog rather than a buffered result list.
+     * 
+     * @param criteria The search criteria; unset fields don't filter
+     * @return Cold publisher of the matching movies
+     */
+    public Flux<Movie> streamMatches(MovieSearchCriteria criteria) {
+        return Flux.defer(() -> {
+            logger.info("Ahoy matey! Starting reactive search with {}", criteria);
+            MovieCatalog current = catalog;
+            List<Movie> movies = current.getMovies();
+            BitSet matches = current.findMatches(criteria, metrics);
+            if (matches == null) {
+                return Flux.fromIterable(movies);
+            }
+            return Flux.<Movie, Integer>generate(() -> matches.nextSetBit(0), (ordinal, sink) -> {
+                if (ordinal < 0) {
+                    sink.complete();
+                    return ordinal;
+                }
+                sink.next(movies.get(ordinal));
+                return matches.nextSetBit(ordinal + 1);
+            });
+        });
+    }
+
+    /**
+     * Counts movies per genre token, decade, director and rating band among the search matches.
+     * Unfiltered counts come precomputed with the catalog; filtered counts take one pass over
+     * the matching movies.
+     * 
+     * @param criteria The search criteria; unset fields don't filter
+     * @return Facet counts of the matching movies
+     */
+    public MovieFacets getFacets(MovieSearchCriteria criteria) {
+        MovieCatalog current = catalog;
+        if (!criteria.hasCriteria()) {
+            return current.getFacets();
+        }
+        BitSet matches = current.findMatches(criteria, metrics);
+        MovieFacets facets = matches == null ? current.getFacets() : MovieFacets.count(current.getColumns(), matches);
+        logger.info("Arrr! Counted facets over {} movies matching {}", facets.getTotal(), criteria);
+        return facets;
     }
 
     /**
@@ -175,10 +551,46 @@ public class MovieService {
      * @return List of unique genres available
      */
     public List<String> getAllGenres() {
-        return movies.stream()
-            .map(Movie::getGenre)
-            .distinct()
-            .sorted()
-            .collect(java.util.stream.Collectors.toList());
+        return catalog.getGenreIndex().getGenres();
+    }
+
+    /**
+     * Get all unique genre tokens, with compound genres like "Crime/Drama" split apart.
+     * 
+     * @return List of unique lowercase genre tokens, sorted alphabetically
+     */
+    public List<String> getAllGenreTokens() {
+        return catalog.getGenreIndex().getTokens();
+    }
+
+    /**
+     * Search cache key: the normalized criteria under the catalog version they were run against,
+     * so a search racing a reload can never cache results for the wrong catalog.
+     */
+    private static final class SearchKey {
+        private final String catalogVersion;
+        private final MovieSearchCriteria criteria;
+
+        SearchKey(String catalogVersion, MovieSearchCriteria criteria) {
+            this.catalogVersion = catalogVersion;
+            this.criteria = criteria;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SearchKey)) {
+                return false;
+            }
+            SearchKey that = (SearchKey) o;
+            return catalogVersion.equals(that.catalogVersion) && criteria.equals(that.criteria);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * catalogVersion.hashCode() + criteria.hashCode();
+        }
     }
 }
@@ -0,0 +1,52 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.Locale;
+
+/**
+ * Orders a search can be sorted by. Each is backed by a permutation of the catalog sorted when
+ * the catalog loads, see {@link SortIndex}.
+ */
+public enum MovieSort {
+    RATING(true),
+    YEAR(true),
+    DURATION(true),
+    NAME(false);
+
+    private final boolean descendingByDefault;
+
+    MovieSort(boolean descendingByDefault) {
+        this.descendingByDefault = descendingByDefault;
+    }
+
+    /**
+     * @return Whether the sort runs highest first when no order is given: best rated, newest and
+     *         longest first, but names from A to Z
+     */
+    public boolean isDescendingByDefault() {
+        return descendingByDefault;
+    }
+
+    /**
+     * @return Lowercase name, as taken by the sort request parameter
+     */
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param value Request parameter value, e.g. "rating", in any case
+     * @return The matching sort, or null if the value names none
+     */
+    public static MovieSort parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        String key = MovieSearchCriteria.searchKey(value);
+        for (MovieSort sort : values()) {
+            if (sort.key().equals(key)) {
+                return sort;
+            }
+        }
+        return null;
+    }
+}
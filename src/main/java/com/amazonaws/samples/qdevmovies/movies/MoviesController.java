@@ -1,14 +1,16 @@
 package com.amazonaws.samples.qdevmovies.movies;
 
-import com.amazonaws.samples.qdevmovies.utils.MovieIconUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.Optional;
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 public class MoviesController {
@@ -18,16 +20,21 @@ public class MoviesController {
     private MovieService movieService;
 
     @Autowired
-    private ReviewService reviewService;
+    private MovieDetailsLoader movieDetailsLoader;
 
     @GetMapping("/movies")
     public String getMovies(
             org.springframework.ui.Model model,
             @org.springframework.web.bind.annotation.RequestParam(value = "name", required = false) String name,
             @org.springframework.web.bind.annotation.RequestParam(value = "id", required = false) Long id,
-            @org.springframework.web.bind.annotation.RequestParam(value = "genre", required = false) String genre) {
+            @org.springframework.web.bind.annotation.RequestParam(value = "genre", required = false) String genre,
+            @org.springframework.web.bind.annotation.RequestParam(value = "limit", required = false) Integer limit,
+            @org.springframework.web.bind.annotation.RequestParam(value = "cursor", required = false) String cursor) {
         
-        logger.info("Ahoy! Fetching movies with search criteria - name: '{}', id: {}, genre: '{}'", name, id, genre);
+        logger.info("Ahoy! Fetching movies with search criteria - name: '{}', id: {}, genre: '{}', limit: {}, cursor: '{}'", name, id, genre, limit, cursor);
+        
+        // Read before searching, so the rendered page is never cached under a newer catalog
+        String catalogVersion = movieService.getCatalogVersion();
         
         List<Movie> movies;
         String searchMessage = null;
@@ -56,33 +63,73 @@ public class MoviesController {
             logger.info("No search criteria provided, showing all movies");
         }
         
-        model.addAttribute("movies", movies);
+        MoviePage page;
+        try {
+            page = MoviePage.of(movies, cursor, limit);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid paging parameters - limit: {}, cursor: '{}'", limit, cursor);
+            page = MoviePage.of(movies, null, null);
+            searchMessage = "Arrr! That page marker be lost at sea! Showing the first page instead, ye scallywag!";
+        }
+        
+        model.addAttribute("movies", page.getMovies());
+        model.addAttribute("totalCount", page.getTotal());
+        model.addAttribute("nextCursor", page.getNextCursor());
+        model.addAttribute("searchLimit", limit);
         model.addAttribute("searchMessage", searchMessage);
         model.addAttribute("searchName", name);
         model.addAttribute("searchId", id);
         model.addAttribute("searchGenre", genre);
         model.addAttribute("availableGenres", movieService.getAllGenres());
+        if (catalogVersion != null) {
+            // The page is a function of the catalog and the raw parameters it echoes back
+            model.addAttribute(RenderedHtmlCache.KEY_ATTRIBUTE, "movies:" + catalogVersion
+                    + RenderedHtmlCache.keyPart("name", name) + RenderedHtmlCache.keyPart("id", id)
+                    + RenderedHtmlCache.keyPart("genre", genre) + RenderedHtmlCache.keyPart("limit", limit)
+                    + RenderedHtmlCache.keyPart("cursor", cursor));
+        }
         
         return "movies";
     }
 
+    /**
+     * Renders the details page once the movie, its icon and its reviews have been fetched
+     * concurrently off the request thread. Slow reviews degrade to a notice instead of an error.
+     * Only the complete page may be cached or revalidated; the fallback and error pages are marked
+     * no-store, so they never get the catalog ETag and a retry fetches the page afresh.
+     */
     @GetMapping("/movies/{id}/details")
-    public String getMovieDetails(@PathVariable("id") Long movieId, org.springframework.ui.Model model) {
+    public CompletableFuture<String> getMovieDetails(@PathVariable("id") Long movieId, org.springframework.ui.Model model,
+                                                     HttpServletResponse response) {
         logger.info("Fetching details for movie ID: {}", movieId);
         
-        Optional<Movie> movieOpt = movieService.getMovieById(movieId);
-        if (!movieOpt.isPresent()) {
-            logger.warn("Movie with ID {} not found", movieId);
-            model.addAttribute("title", "Movie Not Found");
-            model.addAttribute("message", "Movie with ID " + movieId + " was not found.");
-            return "error";
-        }
-        
-        Movie movie = movieOpt.get();
-        model.addAttribute("movie", movie);
-        model.addAttribute("movieIcon", MovieIconUtils.getMovieIcon(movie.getMovieName()));
-        model.addAttribute("allReviews", reviewService.getReviewsForMovie(movie.getId()));
-        
-        return "movie-details";
+        return movieDetailsLoader.load(movieId).handle((details, error) -> {
+            if (error != null) {
+                logger.error("Arrr! Couldn't load details for movie ID {}: {}", movieId, error.toString());
+                response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+                model.addAttribute("title", "Movie Temporarily Unavailable");
+                model.addAttribute("message", "Movie with ID " + movieId + " couldn't be loaded right now. Try again later, matey!");
+                return "error";
+            }
+            if (!details.isPresent()) {
+                logger.warn("Movie with ID {} not found", movieId);
+                response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+                model.addAttribute("title", "Movie Not Found");
+                model.addAttribute("message", "Movie with ID " + movieId + " was not found.");
+                return "error";
+            }
+            
+            model.addAttribute("movie", details.get().getMovie());
+            model.addAttribute("movieIcon", details.get().getIcon());
+            model.addAttribute("allReviews", details.get().getReviews());
+            model.addAttribute("reviewsUnavailable", !details.get().isReviewsAvailable());
+            if (details.get().isReviewsAvailable()) {
+                // A page missing its reviews is a temporary fallback and is never cached
+                model.addAttribute(RenderedHtmlCache.KEY_ATTRIBUTE, "details:" + movieId + ":" + details.get().getDataVersion());
+            } else {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+            }
+            return "movie-details";
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,153 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Ready-made identity and gzip bodies for the catalog-wide JSON responses (the unfiltered movie
+ * listing and the genre list), which are identical for every caller until the catalog changes.
+ * Each body is serialized and compressed once per catalog version, at the highest gzip level since
+ * the cost is paid once, and then served as bytes with no per-request serialization or
+ * compression. Every body is dropped when a new catalog is swapped in.
+ */
+@Component
+public class PrecompressedResponses {
+    private static final Logger logger = LogManager.getLogger(PrecompressedResponses.class);
+    static final String GZIP = "gzip";
+
+    private final MovieService movieService;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Encoded> bodies;
+
+    /**
+     * @param maximumSize Upper bound on cached body bytes, both encodings counted
+     */
+    @Autowired
+    public PrecompressedResponses(MovieService movieService, ObjectMapper objectMapper,
+                                  @Value("${movies.precompressed.maximum-size:16MB}") DataSize maximumSize) {
+        this.movieService = movieService;
+        this.objectMapper = objectMapper;
+        this.bodies = Caffeine.newBuilder()
+                .maximumWeight(maximumSize.toBytes())
+                .weigher((String key, Encoded encoded) -> encoded.identity.length + encoded.gzip.length)
+                .build();
+        movieService.addCatalogListener(catalog -> bodies.invalidateAll());
+        logger.info("Pre-compressed responses bounded to {} bytes", maximumSize.toBytes());
+    }
+
+    @Autowired(required = false)
+    public void bindMetrics(MeterRegistry registry) {
+        Gauge.builder("movies.precompressed.bytes", bodies,
+                        cache -> cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L))
+                .description("Bytes of ready-made response bodies, both encodings counted")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * Answers with the ready-made body for a catalog-wide response, encoding it on first use.
+     *
+     * @param key Identifies the response within the catalog, e.g. its path and paging parameters
+     * @param acceptEncoding The request's Accept-Encoding header, or null
+     * @param body Builds the response if it isn't cached yet for this catalog version
+     * @return JSON response, gzip-encoded when the client accepts it
+     */
+    public ResponseEntity<byte[]> respond(String key, String acceptEncoding, Supplier<?> body) {
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+        // Read the version before the body is built, so a body is never filed under a newer
+        // catalog than the one it was built from
+        String version = movieService.getCatalogVersion();
+        if (version == null) {
+            return ok.body(encode(body.get()).identity);
+        }
+        Encoded encoded = bodies.get(version + ":" + key, k -> encode(body.get()));
+        if (acceptsGzip(acceptEncoding)) {
+            return ok.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(encoded.gzip);
+        }
+        return ok.body(encoded.identity);
+    }
+
+    private Encoded encode(Object body) {
+        try {
+            byte[] identity = objectMapper.writeValueAsBytes(body);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(identity.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed) {
+                {
+                    def.setLevel(Deflater.BEST_COMPRESSION);
+                }
+            }) {
+                gzip.write(identity);
+            }
+            logger.debug("Arrr! Packed a {} byte response into {} gzip bytes", identity.length, compressed.size());
+            return new Encoded(identity, compressed.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode a catalog response", e);
+        }
+    }
+
+    /**
+     * @return True if the Accept-Encoding header allows gzip, explicitly or through "*"; an
+     *         explicit gzip entry wins over "*"
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (name.equals(GZIP) || name.equals("x-gzip")) {
+                return !hasZeroQuality(parts);
+            }
+            if (name.equals("*")) {
+                wildcard = !hasZeroQuality(parts);
+            }
+        }
+        return wildcard != null && wildcard;
+    }
+
+    private static boolean hasZeroQuality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) == 0;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static final class Encoded {
+        private final byte[] identity;
+        private final byte[] gzip;
+
+        Encoded(byte[] identity, byte[] gzip) {
+            this.identity = identity;
+            this.gzip = gzip;
+        }
+    }
+}
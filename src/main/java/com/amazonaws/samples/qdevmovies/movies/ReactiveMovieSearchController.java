@@ -0,0 +1,74 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ahoy! Non-blocking twins of /movies/search and /movies/genres for high-concurrency clients.
+ * Results are published as a Flux that Spring MVC writes as newline-delimited JSON or server-sent
+ * events, asking for the next movie only once the previous one has been written. A slow client
+ * therefore holds no servlet thread and no buffered result list, just a cursor into the catalog.
+ */
+@RestController
+public class ReactiveMovieSearchController {
+    private static final Logger logger = LogManager.getLogger(ReactiveMovieSearchController.class);
+
+    @Autowired
+    private MovieService movieService;
+
+    /**
+     * Stream every movie matching the criteria, one per line (NDJSON) or event (SSE).
+     * Takes the same filters as /movies/search; paging parameters don't apply.
+     *
+     * @param criteria Search criteria bound from the /movies/search query parameters
+     * @return The matching movies in ascending ID order, or a single error object with a 400
+     */
+    @GetMapping(value = "/reactive/movies/search",
+            produces = {MovieSearchController.NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public ResponseEntity<Flux<Object>> searchMovies(MovieSearchCriteria criteria) {
+        logger.info("Ahoy! Received reactive search request - {}", criteria);
+
+        String invalidMessage = criteria.validate();
+        if (invalidMessage != null) {
+            logger.warn("Blimey! Invalid reactive search request: {}", criteria);
+            return ResponseEntity.badRequest().body(Flux.just(error(invalidMessage)));
+        }
+
+        return ResponseEntity.ok(movieService.streamMatches(criteria)
+                .cast(Object.class)
+                .doOnError(e -> logger.error("Arrr! Error occurred during reactive movie search: {}", e.getMessage(), e))
+                .doOnCancel(() -> logger.warn("Arrr! Reactive search abandoned by the client")));
+    }
+
+    /**
+     * Stream every genre in the treasure chest, one per line (NDJSON) or event (SSE).
+     * Each genre goes out as a {@code {"genre": ...}} object so every line is a JSON document.
+     *
+     * @return The genres, sorted alphabetically
+     */
+    @GetMapping(value = "/reactive/movies/genres",
+            produces = {MovieSearchController.NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Map<String, String>> getAllGenres() {
+        logger.info("Ahoy! Streaming all available movie genres");
+        return Flux.defer(() -> Flux.fromIterable(movieService.getAllGenres()))
+                .map(genre -> Collections.singletonMap("genre", genre))
+                .doOnError(e -> logger.error("Arrr! Error occurred while streaming genres: {}", e.getMessage(), e));
+    }
+
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("success", false);
+        error.put("message", message);
+        return error;
+    }
+}
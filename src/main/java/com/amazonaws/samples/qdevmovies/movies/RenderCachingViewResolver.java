@@ -0,0 +1,100 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.ViewResolver;
+import org.thymeleaf.spring5.view.AbstractThymeleafView;
+import org.thymeleaf.spring5.view.ThymeleafViewResolver;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Puts the rendered HTML cache in front of Thymeleaf. Views whose model carries a
+ * {@link RenderedHtmlCache#KEY_ATTRIBUTE} are served from the cache, or rendered into a buffer,
+ * cached and then written; every other view renders as usual. Ordered just ahead of the Thymeleaf
+ * resolver so content negotiation picks the caching view first.
+ */
+@Component
+public class RenderCachingViewResolver implements ViewResolver, Ordered {
+    private static final String DEFAULT_CONTENT_TYPE = "text/html;charset=UTF-8";
+
+    private final ThymeleafViewResolver thymeleafViewResolver;
+    private final RenderedHtmlCache renderedHtmlCache;
+
+    public RenderCachingViewResolver(ThymeleafViewResolver thymeleafViewResolver, RenderedHtmlCache renderedHtmlCache) {
+        this.thymeleafViewResolver = thymeleafViewResolver;
+        this.renderedHtmlCache = renderedHtmlCache;
+    }
+
+    @Override
+    public View resolveViewName(String viewName, Locale locale) throws Exception {
+        View view = thymeleafViewResolver.resolveViewName(viewName, locale);
+        // Redirects and anything else that isn't a template are left to the Thymeleaf resolver
+        return view instanceof AbstractThymeleafView ? new CachingView(view, renderedHtmlCache, locale) : null;
+    }
+
+    @Override
+    public int getOrder() {
+        return thymeleafViewResolver.getOrder() - 1;
+    }
+
+    static final class CachingView implements View {
+        private final View delegate;
+        private final RenderedHtmlCache cache;
+        private final Locale locale;
+
+        CachingView(View delegate, RenderedHtmlCache cache, Locale locale) {
+            this.delegate = delegate;
+            this.cache = cache;
+            this.locale = locale;
+        }
+
+        @Override
+        public String getContentType() {
+            return delegate.getContentType();
+        }
+
+        @Override
+        public void render(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response) throws Exception {
+            Object key = model != null ? model.get(RenderedHtmlCache.KEY_ATTRIBUTE) : null;
+            if (!(key instanceof String)) {
+                delegate.render(model, request, response);
+                return;
+            }
+            String html = cache.page((String) key, locale, () -> renderToString(model, request, response));
+            response.setContentType(getContentType() != null ? getContentType() : DEFAULT_CONTENT_TYPE);
+            response.getWriter().write(html);
+        }
+
+        private String renderToString(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response) throws Exception {
+            StringWriter buffer = new StringWriter();
+            PrintWriter writer = new PrintWriter(buffer);
+            delegate.render(model, request, new HttpServletResponseWrapper(response) {
+                @Override
+                public PrintWriter getWriter() {
+                    return writer;
+                }
+
+                @Override
+                public ServletOutputStream getOutputStream() {
+                    throw new IllegalStateException("Templates render through the writer");
+                }
+
+                @Override
+                public void flushBuffer() {
+                    writer.flush();
+                }
+            });
+            writer.flush();
+            return buffer.toString();
+        }
+    }
+}
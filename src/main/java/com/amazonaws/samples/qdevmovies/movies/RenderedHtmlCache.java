@@ -0,0 +1,228 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.WebContext;
+
+import javax.servlet.http.HttpServletRequest;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+/**
+ * Rendered HTML for the movie pages: each movie's card, and whole pages for the queries people
+ * actually repeat. Cards are keyed by Movie instance, which is unique to one loaded catalog, so a
+ * card can never outlive the data it shows; pages are keyed by the controller from the catalog
+ * version and the raw request. Everything is also keyed by locale and by the context path the
+ * links are built under, and dropped when a new catalog is swapped in. A response that may
+ * rewrite links with a session ID renders in full, since its HTML belongs to that client alone.
+ * Caffeine's admission policy keeps the popular pages resident within the bound.
+ */
+@Component
+public class RenderedHtmlCache {
+    private static final Logger logger = LogManager.getLogger(RenderedHtmlCache.class);
+
+    /** Model attribute holding the cache key of the page being rendered; pages without one aren't cached */
+    public static final String KEY_ATTRIBUTE = "renderCacheKey";
+    static final String CARD_TEMPLATE = "fragments/movie-card";
+
+    private final ITemplateEngine templateEngine;
+    private final Cache<Object, String> rendered;
+
+    /**
+     * @param maximumSize Upper bound on cached HTML, counted in characters; 0 disables the cache
+     */
+    @Autowired
+    public RenderedHtmlCache(MovieService movieService, ITemplateEngine templateEngine,
+                             @Value("${movies.render-cache.maximum-size:8MB}") DataSize maximumSize) {
+        this.templateEngine = templateEngine;
+        this.rendered = maximumSize.toBytes() > 0
+                ? Caffeine.newBuilder()
+                        .maximumWeight(maximumSize.toBytes())
+                        .weigher((Object key, String html) -> html.length())
+                        .recordStats()
+                        .build()
+                : null;
+        if (rendered != null) {
+            movieService.addCatalogListener(catalog -> rendered.invalidateAll());
+            logger.info("Rendered HTML cache bounded to {} characters", maximumSize.toBytes());
+        } else {
+            logger.info("Rendered HTML cache disabled, every page renders in full");
+        }
+    }
+
+    @Autowired(required = false)
+    public void bindMetrics(MeterRegistry registry) {
+        Gauge.builder("movies.render.cache.size", this, cache -> cache.rendered != null ? cache.rendered.estimatedSize() : 0)
+                .description("Approximate number of cached cards and pages")
+                .register(registry);
+        FunctionCounter.builder("movies.render.cache.requests", this, cache -> cache.getStats().hitCount())
+                .description("Rendered HTML cache lookups")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("movies.render.cache.requests", this, cache -> cache.getStats().missCount())
+                .description("Rendered HTML cache lookups")
+                .tag("result", "miss")
+                .register(registry);
+    }
+
+    /**
+     * Renders a movie's card for the movie list, once per movie, locale and context path. Called
+     * from the movies template while it renders, so the current request is available for link
+     * building.
+     *
+     * @param movie The movie, as held by the current catalog
+     * @return The card's HTML
+     */
+    public String card(Movie movie) {
+        Locale locale = LocaleContextHolder.getLocale();
+        String contextPath = linkContextPath();
+        if (rendered == null || contextPath == null) {
+            return renderCard(movie, locale);
+        }
+        return rendered.get(new CardKey(movie, locale, contextPath), key -> renderCard(movie, locale));
+    }
+
+    private String renderCard(Movie movie, Locale locale) {
+        ServletRequestAttributes request = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+        WebContext context = new WebContext(request.getRequest(), request.getResponse(),
+                request.getRequest().getServletContext(), locale);
+        context.setVariable("movie", movie);
+        return templateEngine.process(CARD_TEMPLATE, context);
+    }
+
+    /**
+     * Looks up a rendered page, rendering and caching it on a miss. Rendering runs outside the
+     * cache, so a slow render never blocks lookups of other pages.
+     *
+     * @param key Page key from the controller, which already includes the catalog version
+     * @param locale Locale the page renders in
+     * @param render Renders the page
+     * @return The page's HTML
+     */
+    public String page(String key, Locale locale, Callable<String> render) throws Exception {
+        String contextPath = linkContextPath();
+        if (rendered == null || contextPath == null) {
+            return render.call();
+        }
+        PageKey pageKey = new PageKey(key, locale, contextPath);
+        String html = rendered.getIfPresent(pageKey);
+        if (html == null) {
+            html = render.call();
+            rendered.put(pageKey, html);
+        }
+        return html;
+    }
+
+    /**
+     * @return Context path the current request's links are built under, or null if the response
+     *         may rewrite them with a session ID (a session the client hasn't confirmed by cookie)
+     */
+    private static String linkContextPath() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return "";
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+        if (request.getSession(false) != null && !request.isRequestedSessionIdFromCookie()) {
+            return null;
+        }
+        return request.getContextPath();
+    }
+
+    /**
+     * @return Hit and miss counts across cards and pages
+     */
+    public CacheStats getStats() {
+        return rendered != null ? rendered.stats() : CacheStats.empty();
+    }
+
+    /**
+     * Builds a page key segment for one request parameter. Absent and empty values stay distinct,
+     * and values are URL-encoded so no value can impersonate another parameter.
+     */
+    public static String keyPart(String name, Object value) {
+        if (value == null) {
+            return "";
+        }
+        try {
+            return "&" + name + "=" + URLEncoder.encode(value.toString(), StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException("UTF-8 is required by every Java platform", e);
+        }
+    }
+
+    /**
+     * Movie has no equals or hashCode, so the key matches only the very same instance.
+     */
+    private static final class CardKey {
+        private final Movie movie;
+        private final Locale locale;
+        private final String contextPath;
+
+        CardKey(Movie movie, Locale locale, String contextPath) {
+            this.movie = movie;
+            this.locale = locale;
+            this.contextPath = contextPath;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof CardKey)) {
+                return false;
+            }
+            CardKey other = (CardKey) o;
+            return movie == other.movie && locale.equals(other.locale) && contextPath.equals(other.contextPath);
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(movie) * 31 + locale.hashCode()) * 31 + contextPath.hashCode();
+        }
+    }
+
+    private static final class PageKey {
+        private final String key;
+        private final Locale locale;
+        private final String contextPath;
+
+        PageKey(String key, Locale locale, String contextPath) {
+            this.key = key;
+            this.locale = locale;
+            this.contextPath = contextPath;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof PageKey)) {
+                return false;
+            }
+            PageKey other = (PageKey) o;
+            return key.equals(other.key) && locale.equals(other.locale) && contextPath.equals(other.contextPath);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(key, locale, contextPath);
+        }
+    }
+}
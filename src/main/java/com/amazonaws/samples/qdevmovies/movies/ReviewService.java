@@ -2,32 +2,109 @@ package com.amazonaws.samples.qdevmovies.movies;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-import java.util.List;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
 
 @Service
 public class ReviewService {
     private static final Logger logger = LogManager.getLogger(ReviewService.class);
+    private static final String REVIEWS_RESOURCE = "mock-reviews.json";
+    /** System property naming a reviews file to load instead of the bundled mock-reviews.json */
+    public static final String REVIEWS_PATH_PROPERTY = "movies.reviews.path";
 
-    public List<Review> getReviewsForMovie(long movieId) {
-        List<Review> reviews = new ArrayList<>();
+    // Rough per-object costs used by estimateMemoryBytes(); good enough for sizing, not accounting
+    private static final long MAP_ENTRY_OVERHEAD_BYTES = 64;
+    private static final long REVIEW_OVERHEAD_BYTES = 48;
+    private static final long STRING_OVERHEAD_BYTES = 40;
+
+    private final Map<Long, List<Review>> reviewIndex;
+    private final int reviewCount;
+    private final long loadTimeMillis;
+    private String dataVersion = "none";
+    private volatile Timer lookupTimer;
+
+    public ReviewService() {
+        long start = System.nanoTime();
+        this.reviewIndex = loadReviewsFromJson();
+        int count = 0;
+        for (List<Review> reviews : reviewIndex.values()) {
+            count += reviews.size();
+        }
+        this.reviewCount = count;
+        this.loadTimeMillis = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Loaded {} reviews for {} movies in {} ms (~{} bytes)",
+                reviewCount, reviewIndex.size(), loadTimeMillis, estimateMemoryBytes());
+    }
+
+    /**
+     * Publishes review lookup latency and index size gauges to the registry.
+     *
+     * @param registry Registry backing the actuator metrics endpoint
+     */
+    @Autowired(required = false)
+    public void bindMetrics(MeterRegistry registry) {
+        this.lookupTimer = MovieMetrics.latencyTimer(registry, "movies.reviews.lookup", "Time to fetch the reviews of one movie");
+        Gauge.builder("movies.reviews.count", this, ReviewService::getReviewCount)
+                .description("Reviews held in the index")
+                .register(registry);
+        Gauge.builder("movies.reviews.index.bytes", this, ReviewService::estimateMemoryBytes)
+                .description("Approximate heap held by the review index")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("movies.reviews.load.time", this, ReviewService::getLoadTimeMillis)
+                .description("Time spent parsing and indexing the reviews at startup")
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+
+    /**
+     * Parses mock-reviews.json (or the file named by {@link #REVIEWS_PATH_PROPERTY}) once into an
+     * immutable movie ID -> reviews index.
+     */
+    private Map<Long, List<Review>> loadReviewsFromJson() {
+        Map<Long, List<Review>> index = new HashMap<>();
+        String reviewsPath = System.getProperty(REVIEWS_PATH_PROPERTY, "");
         try {
-            InputStream inputStream = getClass().getClassLoader().getResourceAsStream("mock-reviews.json");
+            InputStream inputStream = reviewsPath.trim().isEmpty()
+                    ? getClass().getClassLoader().getResourceAsStream(REVIEWS_RESOURCE)
+                    : Files.newInputStream(Paths.get(reviewsPath));
             if (inputStream != null) {
                 Scanner scanner = new Scanner(inputStream, StandardCharsets.UTF_8.name());
                 String jsonContent = scanner.useDelimiter("\\A").next();
                 scanner.close();
-                
+                CRC32 crc = new CRC32();
+                crc.update(jsonContent.getBytes(StandardCharsets.UTF_8));
+                dataVersion = Long.toHexString(crc.getValue());
+
                 JSONObject reviewsData = new JSONObject(jsonContent);
-                if (reviewsData.has(String.valueOf(movieId))) {
-                    JSONArray movieReviews = reviewsData.getJSONArray(String.valueOf(movieId));
+                for (String key : reviewsData.keySet()) {
+                    long movieId;
+                    try {
+                        movieId = Long.parseLong(key);
+                    } catch (NumberFormatException e) {
+                        logger.warn("Skipping reviews under non-numeric movie key '{}'", key);
+                        continue;
+                    }
+                    JSONArray movieReviews = reviewsData.getJSONArray(key);
+                    List<Review> reviews = new ArrayList<>(movieReviews.length());
                     for (int i = 0; i < movieReviews.length(); i++) {
                         JSONObject reviewObj = movieReviews.getJSONObject(i);
                         reviews.add(new Review(
@@ -37,11 +114,79 @@ public class ReviewService {
                             reviewObj.getString("comment")
                         ));
                     }
+                    index.put(movieId, Collections.unmodifiableList(reviews));
                 }
             }
         } catch (Exception e) {
-            logger.error("Failed to load reviews for movie {}: {}", movieId, e.getMessage());
+            logger.error("Failed to load reviews from JSON: {}", e.getMessage());
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    /**
+     * Looks up the reviews for a movie in the in-memory index.
+     *
+     * @param movieId The movie ID
+     * @return Unmodifiable list of reviews, empty if the movie has none
+     */
+    public List<Review> getReviewsForMovie(long movieId) {
+        long start = System.nanoTime();
+        List<Review> reviews = reviewIndex.get(movieId);
+        Timer timer = lookupTimer;
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
-        return reviews;
+        return reviews != null ? reviews : Collections.<Review>emptyList();
+    }
+
+    /**
+     * @return Checksum of the review data the index was built from, for cache validators
+     */
+    public String getDataVersion() {
+        return dataVersion;
+    }
+
+    /**
+     * @return Time spent parsing and indexing the reviews at startup, in milliseconds
+     */
+    public long getLoadTimeMillis() {
+        return loadTimeMillis;
+    }
+
+    /**
+     * @return Number of movies that have at least one review in the index
+     */
+    public int getIndexedMovieCount() {
+        return reviewIndex.size();
+    }
+
+    /**
+     * @return Total number of reviews held in the index
+     */
+    public int getReviewCount() {
+        return reviewCount;
+    }
+
+    /**
+     * Estimates the heap held by the review index from string lengths and fixed object overheads.
+     *
+     * @return Approximate retained size of the index in bytes
+     */
+    public long estimateMemoryBytes() {
+        long bytes = 0;
+        for (List<Review> reviews : reviewIndex.values()) {
+            bytes += MAP_ENTRY_OVERHEAD_BYTES;
+            for (Review review : reviews) {
+                bytes += REVIEW_OVERHEAD_BYTES
+                        + stringBytes(review.getUserName())
+                        + stringBytes(review.getAvatarEmoji())
+                        + stringBytes(review.getComment());
+            }
+        }
+        return bytes;
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : STRING_OVERHEAD_BYTES + 2L * value.length();
     }
 }
@@ -0,0 +1,141 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The catalog pre-sorted once per {@link MovieSort}, so a sorted search never sorts its results.
+ * Each sort keeps a permutation of the ordinals in ascending order of its key, ties by ordinal
+ * (ascending ID), and the inverse permutation giving each ordinal's position in it. A page walks
+ * the permutation from the start, the end or just past the previous page's last movie, keeping
+ * the matches it meets, and stops once the page is full. When the matches are too sparse for that
+ * walk to pay off, their positions are sorted instead.
+ * Descending order is the ascending order reversed, so tied movies come by descending ID.
+ */
+public class SortIndex {
+    private final int size;
+    /** Per sort, ordinals in ascending order of the key */
+    private final int[][] orders;
+    /** Per sort, each ordinal's position in its order */
+    private final int[][] positions;
+
+    /**
+     * @param columns The catalog's columns, for the numeric keys
+     * @param titleKeys Already-normalized (lowercased) titles, indexed by ordinal
+     */
+    public SortIndex(ColumnarCatalog columns, List<String> titleKeys) {
+        this.size = titleKeys.size();
+        this.orders = new int[MovieSort.values().length][];
+        this.positions = new int[MovieSort.values().length][];
+        for (MovieSort sort : MovieSort.values()) {
+            int[] order = sortedOrdinals(keyOrder(sort, columns, titleKeys));
+            int[] position = new int[size];
+            for (int i = 0; i < size; i++) {
+                position[order[i]] = i;
+            }
+            orders[sort.ordinal()] = order;
+            positions[sort.ordinal()] = position;
+        }
+    }
+
+    private static Comparator<Integer> keyOrder(MovieSort sort, ColumnarCatalog columns, List<String> titleKeys) {
+        switch (sort) {
+            case RATING:
+                return Comparator.comparingDouble(columns::getImdbRating);
+            case YEAR:
+                return Comparator.comparingInt(columns::getYear);
+            case DURATION:
+                return Comparator.comparingInt(columns::getDuration);
+            case NAME:
+                return Comparator.comparing(titleKeys::get);
+            default:
+                throw new IllegalArgumentException("Unknown sort: " + sort);
+        }
+    }
+
+    private int[] sortedOrdinals(Comparator<Integer> keyOrder) {
+        Integer[] boxed = new Integer[size];
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            boxed[ordinal] = ordinal;
+        }
+        // Stable, so tied keys stay in ordinal order
+        Arrays.sort(boxed, keyOrder);
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = boxed[i];
+        }
+        return order;
+    }
+
+    /**
+     * Cuts one page of matches in sort order.
+     *
+     * @param matches Matching ordinals, or null when every movie matches
+     * @param matchCount Number of matching ordinals
+     * @param afterOrdinal Ordinal of the previous page's last movie, or -1 for the first page
+     * @param limit Most ordinals to return
+     * @return Up to limit matching ordinals, in sort order
+     */
+    public int[] page(MovieSort sort, boolean descending, BitSet matches, int matchCount, int afterOrdinal, int limit) {
+        int[] order = orders[sort.ordinal()];
+        int[] position = positions[sort.ordinal()];
+        if (matchCount == 0 || limit <= 0) {
+            return new int[0];
+        }
+        // A walk meets about limit * size / matchCount movies; sorting the matches costs about
+        // matchCount * log2(matchCount) and wins for a selective filter
+        long walkCost = (long) limit * size / matchCount;
+        long sortCost = (long) matchCount * (32 - Integer.numberOfLeadingZeros(matchCount));
+        if (matches != null && walkCost > sortCost) {
+            return pageOfSorted(order, position, descending, matches, matchCount, afterOrdinal, limit);
+        }
+
+        int[] page = new int[Math.min(limit, matchCount)];
+        int count = 0;
+        int step = descending ? -1 : 1;
+        int from = afterOrdinal >= 0 ? position[afterOrdinal] + step : descending ? size - 1 : 0;
+        for (int i = from; i >= 0 && i < size && count < page.length; i += step) {
+            int ordinal = order[i];
+            if (matches == null || matches.get(ordinal)) {
+                page[count++] = ordinal;
+            }
+        }
+        return Arrays.copyOf(page, count);
+    }
+
+    private static int[] pageOfSorted(int[] order, int[] position, boolean descending, BitSet matches, int matchCount,
+                                      int afterOrdinal, int limit) {
+        int[] sorted = new int[matchCount];
+        int count = 0;
+        for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+            sorted[count++] = position[ordinal];
+        }
+        Arrays.sort(sorted, 0, count);
+
+        int from;
+        if (afterOrdinal < 0) {
+            from = descending ? count - 1 : 0;
+        } else {
+            // The previous page's last movie needn't match any more, so search for where it would sit
+            int found = Arrays.binarySearch(sorted, 0, count, position[afterOrdinal]);
+            int insertion = found >= 0 ? found : -found - 1;
+            from = descending ? insertion - 1 : found >= 0 ? found + 1 : insertion;
+        }
+        int step = descending ? -1 : 1;
+        int[] page = new int[Math.min(limit, count)];
+        int taken = 0;
+        for (int i = from; i >= 0 && i < count && taken < page.length; i += step) {
+            page[taken++] = order[sorted[i]];
+        }
+        return Arrays.copyOf(page, taken);
+    }
+
+    /**
+     * @return Number of movies in the index
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,300 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Prefix trie for search-box autocomplete, with each node's best suggestions precomputed.
+ * Every suggestion is reachable from the start of its text and from the start of each later word,
+ * so "ring" suggests "The Quest for the Ring". Each node keeps the {@link #TOP_K} highest rated
+ * suggestions below it, so a lookup walks one node per prefix character and copies that list;
+ * it never visits the suggestions themselves.
+ * The trie is flattened into arrays, with each node's children stored next to each other in
+ * label order, and a branch holding a single suggestion ends in one leaf instead of a chain of
+ * nodes. A lookup that runs past a leaf (or past {@link #MAX_DEPTH}) checks the rest of the prefix
+ * against the leaf's suggestions directly.
+ */
+public class SuggestionIndex {
+    /** Most suggestions kept per prefix */
+    public static final int TOP_K = 10;
+    /** Deepest node; longer prefixes narrow the suggestions of their first MAX_DEPTH characters */
+    static final int MAX_DEPTH = 24;
+
+    /** Highest rated first, then alphabetically */
+    private static final Comparator<Suggestion> RANK = Comparator.comparingDouble(Suggestion::getImdbRating).reversed()
+            .thenComparing(suggestion -> MovieSearchCriteria.searchKey(suggestion.getText()))
+            .thenComparing(suggestion -> suggestion.getMovieId() == null ? 0L : suggestion.getMovieId());
+
+    private final Suggestion[] suggestions;
+    private final String[] keys;
+
+    private char[] labels;
+    private int[] firstChild;
+    private int[] childCount;
+    private int[] topStart;
+    private int[] topCount;
+    private int[] top;
+    private int nodeCount;
+    private int topSize;
+
+    /**
+     * @param entries Suggestions in any order
+     */
+    public SuggestionIndex(List<Suggestion> entries) {
+        List<Suggestion> ranked = new ArrayList<>(entries);
+        ranked.sort(RANK);
+        this.suggestions = ranked.toArray(new Suggestion[0]);
+        this.keys = new String[suggestions.length];
+
+        // Every word start of every key, cut at MAX_DEPTH, tagged with the suggestion's rank
+        List<String> tails = new ArrayList<>();
+        List<Integer> tailRanks = new ArrayList<>();
+        for (int rank = 0; rank < suggestions.length; rank++) {
+            String key = MovieSearchCriteria.searchKey(suggestions[rank].getText());
+            keys[rank] = key;
+            for (int start = 0; start < key.length(); start++) {
+                if (isWordStart(key, start)) {
+                    tails.add(key.substring(start, Math.min(key.length(), start + MAX_DEPTH)));
+                    tailRanks.add(rank);
+                }
+            }
+        }
+        Integer[] order = new Integer[tails.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer, String>comparing(tails::get).thenComparing(tailRanks::get));
+        String[] sortedTails = new String[order.length];
+        int[] sortedRanks = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedTails[i] = tails.get(order[i]);
+            sortedRanks[i] = tailRanks.get(order[i]);
+        }
+
+        int capacity = Math.max(16, order.length * 2);
+        labels = new char[capacity];
+        firstChild = new int[capacity];
+        childCount = new int[capacity];
+        topStart = new int[capacity];
+        topCount = new int[capacity];
+        top = new int[capacity];
+        allocate(1);
+        build(0, sortedTails, sortedRanks, 0, sortedTails.length, 0);
+        trim();
+    }
+
+    /**
+     * Builds the node for the sorted tails in [lo, hi), which share their first depth characters,
+     * and everything below it.
+     *
+     * @return The node's top suggestion ranks, ascending
+     */
+    private int[] build(int node, String[] tails, int[] ranks, int lo, int hi, int depth) {
+        if (depth == MAX_DEPTH || singleRank(ranks, lo, hi)) {
+            return setTop(node, topOf(ranks, lo, hi));
+        }
+
+        // Tails ending here sort ahead of the longer ones sharing their characters
+        int from = lo;
+        while (from < hi && tails[from].length() == depth) {
+            from++;
+        }
+        int children = 0;
+        for (int i = from; i < hi; i++) {
+            if (i == from || tails[i].charAt(depth) != tails[i - 1].charAt(depth)) {
+                children++;
+            }
+        }
+        int first = allocate(children);
+        firstChild[node] = first;
+        childCount[node] = children;
+
+        int[] merged = topOf(ranks, lo, from);
+        int child = first;
+        int start = from;
+        for (int i = from + 1; i <= hi; i++) {
+            if (i == hi || tails[i].charAt(depth) != tails[start].charAt(depth)) {
+                labels[child] = tails[start].charAt(depth);
+                merged = merge(merged, build(child, tails, ranks, start, i, depth + 1));
+                child++;
+                start = i;
+            }
+        }
+        return setTop(node, merged);
+    }
+
+    private static boolean singleRank(int[] ranks, int lo, int hi) {
+        for (int i = lo + 1; i < hi; i++) {
+            if (ranks[i] != ranks[lo]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The distinct best ranks in [lo, hi), ascending, at most TOP_K of them
+     */
+    private static int[] topOf(int[] ranks, int lo, int hi) {
+        int[] sorted = Arrays.copyOfRange(ranks, lo, hi);
+        Arrays.sort(sorted);
+        return distinctTop(sorted, sorted.length);
+    }
+
+    private static int[] merge(int[] a, int[] b) {
+        int[] both = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, both, a.length, b.length);
+        Arrays.sort(both);
+        return distinctTop(both, both.length);
+    }
+
+    private static int[] distinctTop(int[] sorted, int length) {
+        int count = 0;
+        for (int i = 0; i < length && count < TOP_K; i++) {
+            if (count == 0 || sorted[i] != sorted[count - 1]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, count);
+    }
+
+    private int allocate(int count) {
+        int first = nodeCount;
+        nodeCount += count;
+        if (nodeCount > labels.length) {
+            int capacity = Math.max(nodeCount, labels.length * 2);
+            labels = Arrays.copyOf(labels, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            childCount = Arrays.copyOf(childCount, capacity);
+            topStart = Arrays.copyOf(topStart, capacity);
+            topCount = Arrays.copyOf(topCount, capacity);
+        }
+        return first;
+    }
+
+    private int[] setTop(int node, int[] ranks) {
+        if (topSize + ranks.length > top.length) {
+            top = Arrays.copyOf(top, Math.max(topSize + ranks.length, top.length * 2));
+        }
+        System.arraycopy(ranks, 0, top, topSize, ranks.length);
+        topStart[node] = topSize;
+        topCount[node] = ranks.length;
+        topSize += ranks.length;
+        return ranks;
+    }
+
+    private void trim() {
+        labels = Arrays.copyOf(labels, nodeCount);
+        firstChild = Arrays.copyOf(firstChild, nodeCount);
+        childCount = Arrays.copyOf(childCount, nodeCount);
+        topStart = Arrays.copyOf(topStart, nodeCount);
+        topCount = Arrays.copyOf(topCount, nodeCount);
+        top = Arrays.copyOf(top, topSize);
+    }
+
+    private static boolean isWordStart(String key, int index) {
+        return index == 0 || (!Character.isLetterOrDigit(key.charAt(index - 1)) && Character.isLetterOrDigit(key.charAt(index)));
+    }
+
+    /**
+     * Finds the best suggestions whose text, or one of its words, starts with the prefix.
+     *
+     * @param prefix Already-normalized (lowercased) prefix
+     * @param limit Most suggestions to return, capped at {@link #TOP_K}
+     * @return Matching suggestions, highest rated first
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        int node = 0;
+        int depth = 0;
+        int walk = Math.min(prefix.length(), MAX_DEPTH);
+        while (depth < walk && childCount[node] > 0) {
+            node = findChild(node, prefix.charAt(depth));
+            if (node < 0) {
+                return Collections.emptyList();
+            }
+            depth++;
+        }
+        // Ran out of nodes before the prefix ended, so check the rest of it by hand
+        boolean verify = depth < prefix.length();
+        List<Suggestion> results = new ArrayList<>(Math.min(limit, topCount[node]));
+        for (int i = topStart[node]; i < topStart[node] + topCount[node] && results.size() < limit; i++) {
+            int rank = top[i];
+            if (!verify || hasWordStartingWith(keys[rank], prefix)) {
+                results.add(suggestions[rank]);
+            }
+        }
+        return results;
+    }
+
+    private int findChild(int node, char label) {
+        int low = firstChild[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (labels[mid] < label) {
+                low = mid + 1;
+            } else if (labels[mid] > label) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean hasWordStartingWith(String key, String prefix) {
+        for (int start = 0; start + prefix.length() <= key.length(); start++) {
+            if (isWordStart(key, start) && key.startsWith(prefix, start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Number of suggestions in the index
+     */
+    public int size() {
+        return suggestions.length;
+    }
+
+    /**
+     * @return Number of trie nodes
+     */
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * One autocomplete entry: a movie title, or a director with their best rating.
+     */
+    public static final class Suggestion {
+        private final String text;
+        private final double imdbRating;
+        private final Long movieId;
+
+        /**
+         * @param movieId The movie a title suggestion opens, or null for a director
+         */
+        public Suggestion(String text, double imdbRating, Long movieId) {
+            this.text = text;
+            this.imdbRating = imdbRating;
+            this.movieId = movieId;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public double getImdbRating() {
+            return imdbRating;
+        }
+
+        public Long getMovieId() {
+            return movieId;
+        }
+    }
+}
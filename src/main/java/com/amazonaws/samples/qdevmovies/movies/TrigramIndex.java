@@ -0,0 +1,137 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trigram inverted index for case-insensitive substring search over a fixed list of keys.
+ * Each key is addressed by its ordinal (position in the list the index was built from).
+ * A query of three or more characters intersects the posting lists of its trigrams and then
+ * verifies the surviving candidates with {@link String#contains}, so results are identical to
+ * a full scan while only touching keys that share every trigram with the query.
+ */
+public class TrigramIndex {
+    private static final int[] NO_POSTINGS = new int[0];
+
+    private final String[] keys;
+    private final Map<Long, int[]> postings;
+
+    /**
+     * @param keys Already-normalized (lowercased) keys, indexed by ordinal
+     */
+    public TrigramIndex(List<String> keys) {
+        this.keys = keys.toArray(new String[0]);
+        this.postings = buildPostings(this.keys);
+    }
+
+    private static Map<Long, int[]> buildPostings(String[] keys) {
+        Map<Long, IntList> building = new HashMap<>();
+        for (int ordinal = 0; ordinal < keys.length; ordinal++) {
+            String key = keys[ordinal];
+            for (int i = 0; i + 3 <= key.length(); i++) {
+                building.computeIfAbsent(trigram(key, i), k -> new IntList()).addPosting(ordinal);
+            }
+        }
+        Map<Long, int[]> postings = new HashMap<>(building.size() * 2);
+        for (Map.Entry<Long, IntList> entry : building.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().toArray());
+        }
+        return postings;
+    }
+
+    /**
+     * Packs three UTF-16 chars into one long so lookups don't allocate substrings.
+     */
+    private static long trigram(String key, int offset) {
+        return ((long) key.charAt(offset) << 32) | ((long) key.charAt(offset + 1) << 16) | key.charAt(offset + 2);
+    }
+
+    /**
+     * Finds every key containing the given term.
+     *
+     * @param term Already-normalized (lowercased) search term
+     * @return Ascending ordinals of the matching keys
+     */
+    public int[] search(String term) {
+        if (term.length() < 3) {
+            return scan(term);
+        }
+
+        List<int[]> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            int[] list = postings.get(trigram(term, i));
+            if (list == null) {
+                return NO_POSTINGS;
+            }
+            lists.add(list);
+        }
+        lists.sort((a, b) -> Integer.compare(a.length, b.length));
+
+        int[] candidates = lists.get(0);
+        for (int i = 1; i < lists.size() && candidates.length > 0; i++) {
+            candidates = intersect(candidates, lists.get(i));
+        }
+
+        int[] matches = new int[candidates.length];
+        int count = 0;
+        for (int ordinal : candidates) {
+            if (keys[ordinal].contains(term)) {
+                matches[count++] = ordinal;
+            }
+        }
+        return count == matches.length ? matches : Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * @return Whether the key at the given ordinal contains the term
+     */
+    public boolean matches(int ordinal, String term) {
+        return keys[ordinal].contains(term);
+    }
+
+    /**
+     * @return Number of keys in the index
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * @return Number of distinct trigrams in the index
+     */
+    public int trigramCount() {
+        return postings.size();
+    }
+
+    private int[] scan(String term) {
+        IntList matches = new IntList();
+        for (int ordinal = 0; ordinal < keys.length; ordinal++) {
+            if (keys[ordinal].contains(term)) {
+                matches.add(ordinal);
+            }
+        }
+        return matches.toArray();
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                out[count++] = a[i];
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, count);
+    }
+}
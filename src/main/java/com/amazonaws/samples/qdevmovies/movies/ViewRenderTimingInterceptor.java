@@ -0,0 +1,42 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times Thymeleaf rendering on its own. The view renders between postHandle and afterCompletion,
+ * so the gap between the two is the template cost, tagged by view name.
+ */
+public class ViewRenderTimingInterceptor implements HandlerInterceptor {
+    private static final String RENDER_START_ATTRIBUTE = ViewRenderTimingInterceptor.class.getName() + ".start";
+    private static final String VIEW_NAME_ATTRIBUTE = ViewRenderTimingInterceptor.class.getName() + ".view";
+
+    private final MeterRegistry registry;
+
+    public ViewRenderTimingInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) {
+        if (modelAndView != null && modelAndView.getViewName() != null) {
+            request.setAttribute(VIEW_NAME_ATTRIBUTE, modelAndView.getViewName());
+            request.setAttribute(RENDER_START_ATTRIBUTE, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(RENDER_START_ATTRIBUTE);
+        if (start instanceof Long) {
+            MovieMetrics.latencyTimer(registry, "movies.view.render", "Time to render a Thymeleaf view",
+                    "view", (String) request.getAttribute(VIEW_NAME_ATTRIBUTE))
+                    .record(System.nanoTime() - (Long) start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
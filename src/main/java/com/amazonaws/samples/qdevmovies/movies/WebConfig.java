@@ -0,0 +1,36 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Spring MVC wiring for the movie endpoints.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final MovieService movieService;
+    private final ObjectProvider<ReviewService> reviewService;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public WebConfig(MovieService movieService, ObjectProvider<ReviewService> reviewService,
+                     ObjectProvider<MeterRegistry> meterRegistry) {
+        this.movieService = movieService;
+        this.reviewService = reviewService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry interceptors) {
+        interceptors.addInterceptor(new CatalogETagInterceptor(movieService, reviewService))
+                .addPathPatterns("/movies/search", "/movies/genres", "/movies/facets", "/movies/suggest", "/movies/*/details");
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            interceptors.addInterceptor(new ViewRenderTimingInterceptor(registry))
+                    .addPathPatterns("/movies", "/movies/*/details");
+        }
+    }
+}
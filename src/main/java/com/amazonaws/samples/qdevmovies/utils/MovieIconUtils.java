@@ -1,22 +1,48 @@
 package com.amazonaws.samples.qdevmovies.utils;
 
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Scanner;
+
 public class MovieIconUtils {
-    
+    /** Icon for movies without an entry in the table */
+    public static final String DEFAULT_ICON = "🎬";
+
+    private static final String ICONS_RESOURCE = "movie-icons.json";
+    private static final Map<String, String> ICONS = loadIcons();
+
+    /**
+     * Looks a movie up in the icon table (movie-icons.json, keyed by lowercase title).
+     * Movies resolve their icon once when they're built, so this isn't on any request path.
+     *
+     * @param movieName The movie title, in any case
+     * @return The movie's icon, or {@link #DEFAULT_ICON}
+     */
     public static String getMovieIcon(String movieName) {
-        switch (movieName.toLowerCase()) {
-            case "the prison escape": return "🔒";
-            case "the family boss": return "👔";
-            case "the masked hero": return "🦇";
-            case "urban stories": return "🌆";
-            case "life journey": return "🏃";
-            case "dream heist": return "💭";
-            case "the virtual world": return "🕶️";
-            case "the wise guys": return "🤵";
-            case "the quest for the ring": return "💍";
-            case "space wars: the beginning": return "🚀";
-            case "the factory owner": return "🏭";
-            case "underground club": return "👊";
-            default: return "🎬";
+        return ICONS.getOrDefault(movieName.toLowerCase(Locale.ROOT), DEFAULT_ICON);
+    }
+
+    private static Map<String, String> loadIcons() {
+        try (InputStream in = MovieIconUtils.class.getClassLoader().getResourceAsStream(ICONS_RESOURCE)) {
+            if (in == null) {
+                return Collections.emptyMap();
+            }
+            JSONObject table = new JSONObject(new Scanner(in, StandardCharsets.UTF_8.name()).useDelimiter("\\A").next());
+            Map<String, String> icons = new HashMap<>();
+            for (String title : table.keySet()) {
+                icons.put(title.toLowerCase(Locale.ROOT), table.getString(title));
+            }
+            return Collections.unmodifiableMap(icons);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + ICONS_RESOURCE, e);
         }
     }
 }
@@ -0,0 +1,74 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ahoy matey! Test class for the memory-mapped CatalogSnapshot.
+ */
+public class CatalogSnapshotTest {
+
+    private final List<Movie> testMovies = Arrays.asList(
+        new Movie(1L, "The Pirate's Treasure", "Captain Director", 2023, "Adventure", "A swashbuckling adventure ☠", 120, 4.5),
+        new Movie(2L, "Sea Battle", "Admiral Filmmaker", 2022, "Action", "", 140, 4.0)
+    );
+
+    private static final long SOURCE_SIZE = 4096L;
+    private static final long SOURCE_MODIFIED = 1_700_000_000_000L;
+    private static final CatalogSnapshot.Fingerprint SOURCE = new CatalogSnapshot.Fingerprint(SOURCE_SIZE, SOURCE_MODIFIED);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Arrr! Test a snapshot round-trips the catalog")
+    public void testWriteAndRead() throws IOException {
+        CatalogSnapshot snapshot = new CatalogSnapshot(tempDir.resolve("catalog.snapshot"));
+        snapshot.write(testMovies, SOURCE);
+
+        List<Movie> movies = snapshot.read(SOURCE);
+        assertNotNull(movies, "Fresh snapshot should be readable!");
+        assertEquals(2, movies.size(), "All movies should round-trip!");
+        Movie movie = movies.get(0);
+        assertEquals(1L, movie.getId());
+        assertEquals("The Pirate's Treasure", movie.getMovieName());
+        assertEquals("Captain Director", movie.getDirector());
+        assertEquals(2023, movie.getYear());
+        assertEquals("Adventure", movie.getGenre());
+        assertEquals("A swashbuckling adventure ☠", movie.getDescription(), "Non-ASCII text should survive!");
+        assertEquals(120, movie.getDuration());
+        assertEquals(4.5, movie.getImdbRating());
+        assertEquals("", movies.get(1).getDescription(), "Empty strings should survive!");
+    }
+
+    @Test
+    @DisplayName("Blimey! Test stale, missing and corrupt snapshots are ignored")
+    public void testFallbackCases() throws IOException {
+        Path path = tempDir.resolve("catalog.snapshot");
+        CatalogSnapshot snapshot = new CatalogSnapshot(path);
+        assertNull(snapshot.read(SOURCE), "Missing snapshot should not be used!");
+
+        snapshot.write(testMovies, SOURCE);
+        assertNull(snapshot.read(new CatalogSnapshot.Fingerprint(SOURCE_SIZE, SOURCE_MODIFIED + 1)), "Snapshot of a different source should not be used!");
+
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 10));
+        assertNull(snapshot.read(SOURCE), "Truncated snapshot should not be used!");
+
+        // A header claiming far more movies than the file could hold
+        snapshot.write(testMovies, SOURCE);
+        bytes = Files.readAllBytes(path);
+        java.nio.ByteBuffer.wrap(bytes).putInt(Integer.BYTES * 2 + Long.BYTES * 2, Integer.MAX_VALUE);
+        Files.write(path, bytes);
+        assertNull(snapshot.read(SOURCE), "A corrupt movie count should not be trusted!");
+    }
+}
@@ -0,0 +1,110 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ahoy matey! Test class for the FullTextIndex BM25 search.
+ */
+public class FullTextIndexTest {
+
+    private static final String[] WORDS = {"pirate", "treasure", "ship", "storm", "island", "map", "captain",
+            "mutiny", "gold", "parrot", "cannon", "harbor", "kraken", "rum", "compass", "anchor"};
+
+    private List<Movie> movies;
+    private FullTextIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        Random random = new Random(42);
+        movies = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            movies.add(new Movie(i + 1, words(random, 1 + random.nextInt(3)), "Director", 2000, "Drama",
+                    words(random, 3 + random.nextInt(30)), 100, 4.0));
+        }
+        index = new FullTextIndex(movies);
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            // Skewed, so some words are common and others rare
+            int word = (int) (WORDS.length * Math.pow(random.nextDouble(), 2));
+            text.append(i == 0 ? "" : " ").append(WORDS[word]);
+        }
+        return text.toString();
+    }
+
+    @Test
+    @DisplayName("Arrr! Test pruned top-k retrieval matches scoring every movie")
+    public void testSearchMatchesExhaustiveScoring() {
+        BitSet evens = new BitSet();
+        for (int i = 0; i < movies.size(); i += 2) {
+            evens.set(i);
+        }
+        for (String query : Arrays.asList("pirate", "kraken", "anchor compass", "pirate treasure ship",
+                "the rum and the parrot", "kraken mutiny anchor harbor gold", "nothing here")) {
+            double[] scores = IntStream.range(0, movies.size()).mapToDouble(ordinal -> index.score(query, ordinal)).toArray();
+            for (int limit : new int[] {1, 10, 100}) {
+                for (BitSet accepted : Arrays.asList(null, evens)) {
+                    int[] expected = IntStream.range(0, movies.size())
+                            .filter(ordinal -> accepted == null || accepted.get(ordinal))
+                            .filter(ordinal -> scores[ordinal] > 0)
+                            .boxed()
+                            .sorted(Comparator.<Integer>comparingDouble(ordinal -> -scores[ordinal])
+                                    .thenComparingInt(ordinal -> ordinal))
+                            .limit(limit)
+                            .mapToInt(Integer::intValue)
+                            .toArray();
+                    int[] actual = index.search(query, limit, accepted);
+                    assertEquals(expected.length, actual.length, "Hit count should match for '" + query + "'!");
+                    for (int i = 0; i < expected.length; i++) {
+                        assertEquals(scores[expected[i]], scores[actual[i]], 1e-9,
+                                "Scores should match at rank " + i + " for '" + query + "'!");
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Yo ho ho! Test title words and rare words score higher")
+    public void testScoring() {
+        FullTextIndex small = new FullTextIndex(Arrays.asList(
+                new Movie(1L, "The Storm", "Director", 2000, "Drama", "A ship at sea.", 100, 4.0),
+                new Movie(2L, "Quiet Seas", "Director", 2000, "Drama", "A ship in a storm.", 100, 4.0),
+                new Movie(3L, "Harbor Days", "Director", 2000, "Drama", "A ship in the harbor.", 100, 4.0)));
+
+        assertArrayEquals(new int[] {0, 1}, small.search("storm", 10, null), "A title match should outrank a description match!");
+        assertEquals(3, small.search("ship", 10, null).length, "Words in every movie should still match!");
+        assertArrayEquals(new int[] {1}, small.search("storm", 10, bits(1, 2)), "Filtered out movies should never be returned!");
+        assertArrayEquals(new int[0], small.search("the a in", 10, null), "Stop words alone should match nothing!");
+        assertEquals(bits(0, 1), small.matches("STORM kraken", 3), "Any known query word should match!");
+    }
+
+    @Test
+    @DisplayName("Shiver me timbers! Test tokenizing drops stop words and punctuation")
+    public void testTokenize() {
+        assertEquals(Arrays.asList("quest", "ring", "2"), FullTextIndex.tokenize("The Quest for the Ring: 2!"),
+                "Tokens should be lowercase words without stop words!");
+    }
+
+    private static BitSet bits(int... ordinals) {
+        BitSet bits = new BitSet();
+        for (int ordinal : ordinals) {
+            bits.set(ordinal);
+        }
+        return bits;
+    }
+}
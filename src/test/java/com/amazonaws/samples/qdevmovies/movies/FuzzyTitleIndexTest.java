@@ -0,0 +1,94 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ahoy matey! Test class for the FuzzyTitleIndex typo-tolerant search.
+ */
+public class FuzzyTitleIndexTest {
+
+    private List<String> keys;
+    private FuzzyTitleIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        keys = Arrays.asList("the prison escape", "the family boss", "dream heist", "the wise guys",
+                "space wars: the beginning", "the quest for the ring", "prison break", "the masked hero");
+        index = new FuzzyTitleIndex(keys);
+    }
+
+    @Test
+    @DisplayName("Arrr! Test tree lookups match a full scan of every title word")
+    public void testSearchMatchesScan() {
+        for (String query : Arrays.asList("prison", "prisn", "pirson", "escpae", "the famly", "wars", "waars", "rign", "dreem hiest", "xyzzy", "", "beginnnig")) {
+            for (int maxEdits = 1; maxEdits <= FuzzyTitleIndex.MAX_EDITS; maxEdits++) {
+                FuzzyTitleIndex.Matches matches = index.search(query, maxEdits);
+                for (int ordinal = 0; ordinal < keys.size(); ordinal++) {
+                    assertEquals(scanDistance(keys.get(ordinal), query, maxEdits), matches.distanceOf(ordinal),
+                            "Index should match a scan for '" + query + "' in '" + keys.get(ordinal) + "'!");
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Shiver me timbers! Test short words must be spelled right")
+    public void testShortWordsAllowFewerEdits() {
+        assertEquals(0, index.search("th", 2).size(), "Two letters should allow no edits!");
+        assertEquals(1, index.search("prisn", 2).distanceOf(0), "Five letters should allow one edit!");
+        assertEquals(-1, index.search("prsn", 2).distanceOf(0), "Four letters should not allow two edits!");
+        assertEquals(2, index.search("pirson", 2).distanceOf(0), "Six letters should allow two edits!");
+        assertEquals(-1, index.search("pirson", 1).distanceOf(0), "The requested limit should cap the edits!");
+    }
+
+    @Test
+    @DisplayName("Yo ho ho! Test exact matches join at distance zero")
+    public void testWithExact() {
+        FuzzyTitleIndex.Matches matches = index.search("prisn", 1).withExact(new int[] {3, 6});
+        assertEquals(1, matches.distanceOf(0), "Fuzzy matches should keep their distance!");
+        assertEquals(0, matches.distanceOf(3), "Exact matches should be at distance zero!");
+        assertEquals(0, matches.distanceOf(6), "Exact matches should override fuzzy distances!");
+        assertEquals(3, matches.size(), "Matches found both ways should be counted once!");
+    }
+
+    @Test
+    @DisplayName("Arrr! Test Levenshtein distances")
+    public void testDistance() {
+        assertEquals(0, FuzzyTitleIndex.distance("ring", "ring"), "Same words should be zero edits apart!");
+        assertEquals(1, FuzzyTitleIndex.distance("ring", "rings"), "An insertion should be one edit!");
+        assertEquals(2, FuzzyTitleIndex.distance("ring", "rign"), "A transposition should be two edits!");
+        assertEquals(3, FuzzyTitleIndex.distance("kitten", "sitting"), "The classic example should be three edits!");
+        assertEquals(4, FuzzyTitleIndex.distance("", "ring"), "An empty word should be one edit per letter away!");
+    }
+
+    /**
+     * Sum over the query words of each one's closest title word within its edits, or -1.
+     */
+    private static int scanDistance(String key, String query, int maxEdits) {
+        List<String> queryWords = FuzzyTitleIndex.words(query);
+        if (queryWords.isEmpty()) {
+            return -1;
+        }
+        int total = 0;
+        for (String queryWord : queryWords) {
+            int allowed = FuzzyTitleIndex.editsAllowed(queryWord, maxEdits);
+            int best = FuzzyTitleIndex.words(key).stream()
+                    .mapToInt(word -> FuzzyTitleIndex.distance(queryWord, word))
+                    .filter(distance -> distance <= allowed)
+                    .min().orElse(-1);
+            if (best < 0) {
+                return -1;
+            }
+            total += best;
+        }
+        return total;
+    }
+}
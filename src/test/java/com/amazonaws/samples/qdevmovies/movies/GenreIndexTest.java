@@ -0,0 +1,49 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ahoy matey! Test class for the GenreIndex bitmaps.
+ */
+public class GenreIndexTest {
+
+    private List<String> genres;
+    private GenreIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        genres = Arrays.asList("Drama", "Crime/Drama", "Action/Crime", "Melodrama", "Crime/Drama");
+        index = new GenreIndex(genres);
+    }
+
+    @Test
+    @DisplayName("Arrr! Test genre search matches a full scan")
+    public void testSearchMatchesScan() {
+        for (String term : Arrays.asList("drama", "crime", "crime/dr", "e/d", "a", "horror")) {
+            BitSet expected = new BitSet();
+            for (int i = 0; i < genres.size(); i++) {
+                if (genres.get(i).toLowerCase().contains(term)) {
+                    expected.set(i);
+                }
+            }
+            assertEquals(expected, index.search(term), "Index should match a scan for '" + term + "'!");
+        }
+    }
+
+    @Test
+    @DisplayName("Shiver me timbers! Test compound genres are tokenized")
+    public void testTokens() {
+        assertEquals(Arrays.asList("action", "crime", "drama", "melodrama"), index.getTokens(), "Tokens should be split and sorted!");
+        assertEquals(3, index.tokenBitmap("crime").cardinality(), "Three movies carry the crime token!");
+        assertTrue(index.tokenBitmap("horror").isEmpty(), "Unknown token should have an empty bitmap!");
+        assertEquals(Arrays.asList("Action/Crime", "Crime/Drama", "Drama", "Melodrama"), index.getGenres(), "Genres should be distinct and sorted!");
+    }
+}
@@ -0,0 +1,86 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ahoy matey! Test class for the streaming MovieCatalogLoader.
+ */
+public class MovieCatalogLoaderTest {
+
+    private static InputStream json(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Arrr! Test streaming the bundled catalog")
+    public void testLoadBundledCatalog() throws IOException {
+        MovieCatalogLoader loader = new MovieCatalogLoader();
+        List<Movie> movies = loader.load(getClass().getClassLoader().getResourceAsStream("movies.json"));
+
+        assertEquals(12, movies.size(), "All 12 movies should be loaded!");
+        assertEquals("The Prison Escape", movies.get(0).getMovieName(), "File order should be kept!");
+        assertEquals(12, loader.getRecordsLoaded(), "Loaded count should be reported!");
+        assertEquals(0, loader.getRecordsSkipped(), "Nothing should be skipped!");
+        assertTrue(loader.getRecordsPerSecond() > 0, "Throughput should be reported!");
+    }
+
+    @Test
+    @DisplayName("Shiver me timbers! Test malformed records and unknown fields")
+    public void testLoadSkipsMalformedRecords() throws IOException {
+        MovieCatalogLoader loader = new MovieCatalogLoader();
+        List<Movie> movies = loader.load(json("["
+                + "{\"id\": 1, \"movieName\": \"A\", \"director\": \"D\", \"year\": 2000, \"genre\": \"Drama\","
+                + " \"description\": \"x\", \"duration\": 90, \"imdbRating\": 4.0, \"extra\": {\"nested\": [1, 2]}},"
+                + "{\"id\": 2, \"movieName\": \"B\"}"
+                + "]"));
+
+        assertEquals(1, movies.size(), "Only the complete record should be loaded!");
+        assertEquals(1L, movies.get(0).getId(), "Unknown fields should be skipped!");
+        assertEquals(1, loader.getRecordsSkipped(), "The incomplete record should be counted as skipped!");
+    }
+
+    @Test
+    @DisplayName("Arrr! Test nested values in known fields and non-object entries don't sink the rest")
+    public void testLoadKeepsGoingAfterOddEntries() throws IOException {
+        MovieCatalogLoader loader = new MovieCatalogLoader();
+        List<Movie> movies = loader.load(json("["
+                + "{\"id\": {\"value\": 1}, \"movieName\": [\"A\", {\"b\": 2}], \"director\": \"D\", \"year\": 2000,"
+                + " \"genre\": \"Drama\", \"description\": \"x\", \"duration\": 90, \"imdbRating\": 4.0},"
+                + "{\"id\": 2, \"movieName\": \"B\", \"director\": \"D\", \"year\": 2001, \"genre\": \"Drama\","
+                + " \"description\": \"y\", \"duration\": 95, \"imdbRating\": 4.5},"
+                + "null, 7, [1, 2],"
+                + "{\"id\": 3, \"movieName\": \"C\", \"director\": \"D\", \"year\": 2002, \"genre\": \"Drama\","
+                + " \"description\": \"z\", \"duration\": 100, \"imdbRating\": 5.0}"
+                + "]"));
+
+        assertEquals(2, movies.size(), "Both valid records should be loaded!");
+        assertEquals(2L, movies.get(0).getId(), "The record after a nested value should be kept!");
+        assertEquals(3L, movies.get(1).getId(), "The record after non-object entries should be kept!");
+        assertEquals(4, loader.getRecordsSkipped(), "The bad record and every non-object entry should be skipped!");
+    }
+
+    @Test
+    @DisplayName("Blimey! Test a truncated catalog is rejected rather than half loaded")
+    public void testLoadRejectsTruncatedCatalog() {
+        assertThrows(IOException.class, () -> new MovieCatalogLoader().load(json("["
+                + "{\"id\": 1, \"movieName\": \"A\", \"director\": \"D\", \"year\": 2000, \"genre\": \"Drama\","
+                + " \"description\": \"x\", \"duration\": 90, \"imdbRating\": 4.0},")),
+                "A catalog missing its closing bracket should be rejected!");
+    }
+
+    @Test
+    @DisplayName("Blimey! Test a catalog that is not an array")
+    public void testLoadRejectsNonArray() {
+        assertThrows(IOException.class, () -> new MovieCatalogLoader().load(json("{\"id\": 1}")),
+                "A non-array catalog should be rejected!");
+    }
+}
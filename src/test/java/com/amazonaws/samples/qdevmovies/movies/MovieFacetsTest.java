@@ -0,0 +1,56 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ahoy matey! Test class for the single-pass MovieFacets counter.
+ */
+public class MovieFacetsTest {
+
+    private final List<Movie> testMovies = Arrays.asList(
+        new Movie(1L, "The Prison Escape", "John Director", 1994, "Drama", "", 142, 5.0),
+        new Movie(2L, "The Family Boss", "Michael Filmmaker", 1972, "Crime/Drama", "", 175, 4.5),
+        new Movie(3L, "The Masked Hero", "Chris Moviemaker", 2008, "Action/Crime", "", 152, 4.7),
+        new Movie(4L, "Dream Heist", "Chris Moviemaker", 2010, "Action/Sci-Fi", "", 148, 4.0)
+    );
+
+    @Test
+    @DisplayName("Arrr! Test counting facets across the whole catalog")
+    public void testCountAll() {
+        MovieFacets facets = MovieFacets.count(new ColumnarCatalog(testMovies), null);
+
+        assertEquals(4, facets.getTotal(), "Every movie should be counted!");
+        assertEquals(Arrays.asList("action", "crime", "drama", "sci-fi"), new ArrayList<>(facets.getGenres().keySet()),
+                "Genre tokens should be ordered by count, then name!");
+        assertEquals(Integer.valueOf(2), facets.getGenres().get("crime"), "Compound genres should count per token!");
+        assertEquals(Arrays.asList("1970s", "1990s", "2000s", "2010s"), new ArrayList<>(facets.getDecades().keySet()),
+                "Decades should be oldest first!");
+        assertEquals("Chris Moviemaker", facets.getDirectors().keySet().iterator().next(),
+                "Most prolific director should come first!");
+        assertEquals(Integer.valueOf(2), facets.getRatingBands().get("4.5"), "4.5 and 4.7 share a band!");
+        assertEquals(Integer.valueOf(1), facets.getRatingBands().get("5.0"));
+    }
+
+    @Test
+    @DisplayName("Yo ho ho! Test counting facets over a subset")
+    public void testCountSubset() {
+        BitSet ordinals = new BitSet();
+        ordinals.set(2);
+        ordinals.set(3);
+        MovieFacets facets = MovieFacets.count(new ColumnarCatalog(testMovies), ordinals);
+
+        assertEquals(2, facets.getTotal());
+        assertFalse(facets.getGenres().containsKey("drama"), "Unmatched genres should not appear!");
+        assertEquals(Integer.valueOf(2), facets.getDirectors().get("Chris Moviemaker"));
+        assertTrue(MovieFacets.count(new ColumnarCatalog(testMovies), new BitSet()).getGenres().isEmpty(),
+                "An empty set should have no facets!");
+    }
+}
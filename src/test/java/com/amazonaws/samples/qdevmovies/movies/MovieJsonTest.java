@@ -0,0 +1,92 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ahoy matey! Test class for the pre-serialized movie JSON.
+ */
+public class MovieJsonTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Movie> testMovies = Arrays.asList(
+        new Movie(1L, "The Prison Escape", "John Director", 1994, "Drama", "Hope \"sets\" ye free", 142, 5.0),
+        new Movie(2L, "Le Château Hanté", "Michael Filmmaker", 1972, "Crime/Drama", "", 175, 4.5),
+        new Movie(3L, "The Masked Hero", "Chris Moviemaker", 2008, "Action/Crime", "", 152, 4.7)
+    );
+
+    @Test
+    @DisplayName("Arrr! Test cached JSON matches what Jackson writes for each movie")
+    public void testWriteToStream() throws IOException {
+        MovieJson json = new MovieJson(testMovies, objectMapper);
+
+        for (Movie movie : testMovies) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertTrue(json.writeTo(movie, out), "Catalog movies should be cached!");
+            assertArrayEquals(objectMapper.writeValueAsBytes(movie), out.toByteArray(),
+                    "Cached bytes should match a fresh serialization of " + movie.getMovieName() + "!");
+        }
+        assertTrue(json.sizeInBytes() > 0, "Cache should hold some bytes!");
+    }
+
+    @Test
+    @DisplayName("Yo ho ho! Test a cached array serializes like the plain list")
+    public void testArray() throws IOException {
+        MovieJson json = new MovieJson(testMovies, objectMapper);
+        List<Movie> page = Arrays.asList(testMovies.get(2), testMovies.get(0));
+
+        // Compare UTF-8 output, as written to HTTP responses
+        assertArrayEquals(objectMapper.writeValueAsBytes(Collections.singletonMap("movies", page)),
+                objectMapper.writeValueAsBytes(Collections.singletonMap("movies", json.array(page))),
+                "Spliced array should match the reflective one!");
+        assertEquals("[]", objectMapper.writeValueAsString(json.array(Collections.emptyList())), "Empty page should be an empty array!");
+    }
+
+    @Test
+    @DisplayName("Shiver me timbers! Test a cached document written as a string is escaped like one")
+    public void testDocumentAsString() throws IOException {
+        MovieJson json = new MovieJson(testMovies, objectMapper);
+        Movie movie = testMovies.get(0);
+        ByteArrayOutputStream cached = new ByteArrayOutputStream();
+        json.writeTo(movie, cached);
+        String expected = objectMapper.writeValueAsString(cached.toString("UTF-8"));
+
+        StringWriter chars = new StringWriter();
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(chars)) {
+            gen.writeString(json.documentOf(movie));
+        }
+        assertEquals(expected, chars.toString(), "Char output should escape the document as a string!");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(bytes)) {
+            gen.writeString(json.documentOf(movie));
+        }
+        assertEquals(expected, bytes.toString("UTF-8"), "UTF-8 output should escape the document as a string!");
+        assertNull(json.documentOf(new Movie(1L, "A Different Voyage", "Someone Else", 2001, "Drama", "", 90, 3.0)),
+                "Foreign movies have no cached document!");
+    }
+
+    @Test
+    @DisplayName("Blimey! Test movies from another catalog fall back to regular serialization")
+    public void testForeignMovie() throws IOException {
+        MovieJson json = new MovieJson(testMovies, objectMapper);
+        Movie lookalike = new Movie(1L, "A Different Voyage", "Someone Else", 2001, "Drama", "", 90, 3.0);
+
+        assertFalse(json.writeTo(lookalike, new ByteArrayOutputStream()), "Only this catalog's instances should be cached!");
+        assertEquals(objectMapper.writeValueAsString(Collections.singletonList(lookalike)),
+                objectMapper.writeValueAsString(json.array(new ArrayList<>(Collections.singletonList(lookalike)))),
+                "Foreign movies should still serialize correctly!");
+    }
+}
@@ -7,15 +7,27 @@ import org.junit.jupiter.api.DisplayName;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -24,6 +36,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * These tests be more comprehensive than a pirate's treasure map!
  */
 @WebMvcTest(MovieSearchController.class)
+@Import(PrecompressedResponses.class)
 public class MovieSearchControllerTest {
 
     @Autowired
@@ -38,18 +51,21 @@ public class MovieSearchControllerTest {
     private List<Movie> testMovies;
     private Movie testMovie1;
     private Movie testMovie2;
+    private MovieCatalog catalog;
 
     @BeforeEach
     public void setUp() {
         testMovie1 = new Movie(1L, "The Prison Escape", "John Director", 1994, "Drama", "Test description 1", 142, 5.0);
         testMovie2 = new Movie(2L, "The Family Boss", "Michael Filmmaker", 1972, "Crime/Drama", "Test description 2", 175, 5.0);
         testMovies = Arrays.asList(testMovie1, testMovie2);
+        catalog = new MovieCatalog(new java.util.ArrayList<>(testMovies), objectMapper);
+        when(movieService.getCatalog()).thenReturn(catalog);
     }
 
     @Test
     @DisplayName("Yo ho ho! Test successful movie search with results")
     public void testSearchMoviesWithResults() throws Exception {
-        when(movieService.searchMovies("prison", null, null)).thenReturn(Arrays.asList(testMovie1));
+        when(movieService.searchMovies(new MovieSearchCriteria("prison", null, null))).thenReturn(Arrays.asList(testMovie1));
 
         mockMvc.perform(get("/movies/search")
                 .param("name", "prison")
@@ -64,10 +80,26 @@ public class MovieSearchControllerTest {
                 .andExpect(jsonPath("$.movies[0].movieName").value("The Prison Escape"));
     }
 
+    @Test
+    @DisplayName("Arrr! Test search results are spliced from the catalog's cached JSON")
+    public void testSearchMoviesWithCachedJson() throws Exception {
+        when(movieService.searchMovies(new MovieSearchCriteria(null, null, "Drama"))).thenReturn(catalog.getMovies());
+
+        String body = mockMvc.perform(get("/movies/search")
+                .param("genre", "Drama"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.movies[1].movieName").value("The Family Boss"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsString(catalog.getMovies())),
+                objectMapper.readTree(body).get("movies"), "Cached movies should match regular serialization!");
+    }
+
     @Test
     @DisplayName("Shiver me timbers! Test movie search with multiple results")
     public void testSearchMoviesWithMultipleResults() throws Exception {
-        when(movieService.searchMovies(null, null, "Drama")).thenReturn(testMovies);
+        when(movieService.searchMovies(new MovieSearchCriteria(null, null, "Drama"))).thenReturn(testMovies);
 
         mockMvc.perform(get("/movies/search")
                 .param("genre", "Drama")
@@ -85,7 +117,7 @@ public class MovieSearchControllerTest {
     @Test
     @DisplayName("Arrr! Test movie search with no results")
     public void testSearchMoviesWithNoResults() throws Exception {
-        when(movieService.searchMovies("nonexistent", null, null)).thenReturn(Arrays.asList());
+        when(movieService.searchMovies(new MovieSearchCriteria("nonexistent", null, null))).thenReturn(Arrays.asList());
 
         mockMvc.perform(get("/movies/search")
                 .param("name", "nonexistent")
@@ -95,6 +127,8 @@ public class MovieSearchControllerTest {
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.message").value("Shiver me timbers! No movies found matching yer search criteria. The treasure chest be empty for this quest, matey!"))
                 .andExpect(jsonPath("$.count").value(0))
+                .andExpect(jsonPath("$.total").value(0))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist())
                 .andExpect(jsonPath("$.movies").isArray())
                 .andExpect(jsonPath("$.movies").isEmpty());
     }
@@ -134,7 +168,7 @@ public class MovieSearchControllerTest {
     @Test
     @DisplayName("Chart a course! Test movie search by ID")
     public void testSearchMoviesById() throws Exception {
-        when(movieService.searchMovies(null, 1L, null)).thenReturn(Arrays.asList(testMovie1));
+        when(movieService.searchMovies(new MovieSearchCriteria(null, 1L, null))).thenReturn(Arrays.asList(testMovie1));
 
         mockMvc.perform(get("/movies/search")
                 .param("id", "1")
@@ -151,7 +185,7 @@ public class MovieSearchControllerTest {
     @Test
     @DisplayName("Yo ho ho! Test movie search with multiple parameters")
     public void testSearchMoviesWithMultipleParameters() throws Exception {
-        when(movieService.searchMovies("prison", null, "Drama")).thenReturn(Arrays.asList(testMovie1));
+        when(movieService.searchMovies(new MovieSearchCriteria("prison", null, "Drama"))).thenReturn(Arrays.asList(testMovie1));
 
         mockMvc.perform(get("/movies/search")
                 .param("name", "prison")
@@ -188,7 +222,7 @@ public class MovieSearchControllerTest {
     @Test
     @DisplayName("Arrr! Test service exception handling in search")
     public void testSearchMoviesServiceException() throws Exception {
-        when(movieService.searchMovies(anyString(), any(), anyString()))
+        when(movieService.searchMovies(new MovieSearchCriteria("test", null, null)))
                 .thenThrow(new RuntimeException("Database connection failed"));
 
         mockMvc.perform(get("/movies/search")
@@ -247,4 +281,423 @@ public class MovieSearchControllerTest {
                 .andExpect(jsonPath("$.success").value(false))
                 .andExpect(jsonPath("$.message").value("Arrr! That ID be as useless as a compass that points south! Provide a valid movie ID, ye scallywag!"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Yo ho ho! Test search with range filters")
+    public void testSearchMoviesWithRangeFilters() throws Exception {
+        MovieSearchCriteria criteria = new MovieSearchCriteria(null, null, "Drama");
+        criteria.setMinYear(1990);
+        criteria.setMaxYear(2000);
+        criteria.setMinRating(4.5);
+        when(movieService.searchMovies(criteria)).thenReturn(Arrays.asList(testMovie1));
+
+        mockMvc.perform(get("/movies/search")
+                .param("genre", "Drama")
+                .param("minYear", "1990")
+                .param("maxYear", "2000")
+                .param("minRating", "4.5")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(jsonPath("$.movies[0].id").value(1));
+    }
+
+    @Test
+    @DisplayName("Blimey! Test search with an inverted year range")
+    public void testSearchMoviesWithInvalidYearRange() throws Exception {
+        mockMvc.perform(get("/movies/search")
+                .param("minYear", "2010")
+                .param("maxYear", "1990")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.count").value(0));
+    }
+
+    @Test
+    @DisplayName("Arrr! Test paging through all movies with limit and cursor")
+    public void testSearchMoviesWithPaging() throws Exception {
+        when(movieService.getAllMovies()).thenReturn(testMovies);
+
+        mockMvc.perform(get("/movies/search")
+                .param("limit", "1")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.movies[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").value(MoviePage.encodeCursor(1L)));
+
+        mockMvc.perform(get("/movies/search")
+                .param("limit", "1")
+                .param("cursor", MoviePage.encodeCursor(1L))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(jsonPath("$.movies[0].id").value(2))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Arrr! Test fuzzy search keeps the ranked order across pages")
+    public void testFuzzySearchWithPaging() throws Exception {
+        MovieSearchCriteria criteria = new MovieSearchCriteria("famly", null, null);
+        criteria.setFuzzy(true);
+        criteria.setMaxEdits(1);
+        // Ranked results aren't in ID order
+        when(movieService.searchMovies(criteria)).thenReturn(Arrays.asList(testMovie2, testMovie1));
+
+        mockMvc.perform(get("/movies/search")
+                .param("name", "famly")
+                .param("fuzzy", "true")
+                .param("maxEdits", "1")
+                .param("limit", "1")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.movies[0].id").value(2))
+                .andExpect(jsonPath("$.nextCursor").value(MoviePage.encodeCursor(2L)));
+
+        mockMvc.perform(get("/movies/search")
+                .param("name", "famly")
+                .param("fuzzy", "true")
+                .param("maxEdits", "1")
+                .param("limit", "1")
+                .param("cursor", MoviePage.encodeCursor(2L))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.movies[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Arrr! Test full-text search keeps the relevance order")
+    public void testFullTextSearch() throws Exception {
+        MovieSearchCriteria criteria = new MovieSearchCriteria();
+        criteria.setQ("boss escape");
+        when(movieService.searchMovies(criteria)).thenReturn(Arrays.asList(testMovie2, testMovie1));
+
+        mockMvc.perform(get("/movies/search")
+                .param("q", "boss escape")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.movies[0].id").value(2))
+                .andExpect(jsonPath("$.movies[1].id").value(1));
+    }
+
+    @Test
+    @DisplayName("Arrr! Test sorted search returns the page the service cut")
+    public void testSortedSearch() throws Exception {
+        MovieSearchCriteria criteria = new MovieSearchCriteria(null, null, "drama");
+        when(movieService.searchSorted(criteria, MovieSort.RATING, true, null, 1))
+                .thenReturn(MoviePage.ofSlice(Arrays.asList(testMovie2), 2, true));
+
+        mockMvc.perform(get("/movies/search")
+                .param("genre", "drama")
+                .param("sort", "Rating")
+                .param("limit", "1")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.sort").value("rating"))
+                .andExpect(jsonPath("$.order").value("desc"))
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.movies[0].id").value(2))
+                .andExpect(jsonPath("$.nextCursor").value(MoviePage.encodeCursor(2L)));
+    }
+
+    @Test
+    @DisplayName("Blimey! Test sorted search with an unknown sort or order")
+    public void testSortedSearchWithInvalidSort() throws Exception {
+        mockMvc.perform(get("/movies/search")
+                .param("sort", "budget")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.count").value(0));
+
+        mockMvc.perform(get("/movies/search")
+                .param("sort", "year")
+                .param("order", "sideways")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/movies/search")
+                .param("order", "asc")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Blimey! Test fuzzy search with an invalid edit distance")
+    public void testFuzzySearchWithInvalidMaxEdits() throws Exception {
+        mockMvc.perform(get("/movies/search")
+                .param("name", "famly")
+                .param("fuzzy", "true")
+                .param("maxEdits", "3")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.count").value(0));
+    }
+
+    @Test
+    @DisplayName("Arrr! Test suggesting titles and directors for a prefix")
+    public void testSuggest() throws Exception {
+
+        mockMvc.perform(get("/movies/suggest")
+                .param("prefix", "Fam")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.titles[0].text").value("The Family Boss"))
+                .andExpect(jsonPath("$.titles[0].movieId").value(2))
+                .andExpect(jsonPath("$.directors").isEmpty())
+                .andExpect(jsonPath("$.count").value(1));
+
+        mockMvc.perform(get("/movies/suggest")
+                .param("prefix", "john d")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.titles").isEmpty())
+                .andExpect(jsonPath("$.directors[0].text").value("John Director"));
+    }
+
+    @Test
+    @DisplayName("Blimey! Test suggesting without a prefix")
+    public void testSuggestWithoutPrefix() throws Exception {
+        mockMvc.perform(get("/movies/suggest")
+                .param("prefix", "  ")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.count").value(0));
+    }
+
+    @Test
+    @DisplayName("Blimey! Test search with invalid paging parameters")
+    public void testSearchMoviesWithInvalidPaging() throws Exception {
+        mockMvc.perform(get("/movies/search")
+                .param("limit", "0")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+
+        mockMvc.perform(get("/movies/search")
+                .param("cursor", "bogus!")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    @DisplayName("Yo ho ho! Test streaming search results as NDJSON")
+    public void testStreamMoviesAsNdjson() throws Exception {
+        when(movieService.forEachMatch(eq(new MovieSearchCriteria(null, null, "Drama")), any())).thenAnswer(invocation -> {
+            Consumer<Movie> consumer = invocation.getArgument(1);
+            testMovies.forEach(consumer);
+            return testMovies.size();
+        });
+
+        MvcResult result = mockMvc.perform(get("/movies/search")
+                .param("genre", "Drama")
+                .accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(3, lines.length, "Two movie lines and a trailer line expected!");
+        assertEquals(1, objectMapper.readTree(lines[0]).get("id").asInt(), "First line should be the first movie!");
+        assertEquals(2, objectMapper.readTree(lines[1]).get("id").asInt(), "Second line should be the second movie!");
+        assertTrue(objectMapper.readTree(lines[2]).get("success").asBoolean(), "Trailer should report success!");
+        assertEquals(2, objectMapper.readTree(lines[2]).get("count").asInt(), "Trailer should carry the count!");
+    }
+
+    @Test
+    @DisplayName("Blimey! Test streaming search rejects an edit limit the JSON search rejects")
+    public void testStreamMoviesInvalidEditLimit() throws Exception {
+        MvcResult result = mockMvc.perform(get("/movies/search")
+                .param("name", "prison")
+                .param("fuzzy", "true")
+                .param("maxEdits", "3")
+                .accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+
+        assertFalse(objectMapper.readTree(body.trim()).get("success").asBoolean(), "Trailer should report failure!");
+        assertEquals("Arrr! A fuzzy search forgives one or two slips of the quill per word, no more and no fewer, ye scallywag!",
+                objectMapper.readTree(body.trim()).get("message").asText(), "Trailer should say what was wrong!");
+        verify(movieService, never()).forEachMatch(any(), any());
+    }
+
+    @Test
+    @DisplayName("Arrr! Test streaming search via the stream parameter")
+    public void testStreamMoviesByParam() throws Exception {
+        when(movieService.forEachMatch(eq(new MovieSearchCriteria("nonexistent", null, null)), any())).thenReturn(0);
+
+        MvcResult result = mockMvc.perform(get("/movies/search")
+                .param("name", "nonexistent")
+                .param("stream", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(0, objectMapper.readTree(body.trim()).get("count").asInt(), "Only the trailer should be streamed!");
+    }
+
+    @Test
+    @DisplayName("Shiver me timbers! Test conditional GET answers 304 before searching")
+    public void testSearchMoviesNotModified() throws Exception {
+        when(movieService.getCatalogVersion()).thenReturn("v1");
+        when(movieService.searchMovies(new MovieSearchCriteria("prison", null, null))).thenReturn(Arrays.asList(testMovie1));
+
+        String etag = mockMvc.perform(get("/movies/search")
+                .param("name", "prison"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/movies/search")
+                .param("name", " prison ")
+                .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(movieService, times(1)).searchMovies(any(MovieSearchCriteria.class));
+
+        // A different query or catalog version must not match
+        mockMvc.perform(get("/movies/search")
+                .param("name", "family")
+                .header("If-None-Match", etag))
+                .andExpect(status().isOk());
+        when(movieService.getCatalogVersion()).thenReturn("v2");
+        mockMvc.perform(get("/movies/search")
+                .param("name", "prison")
+                .header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Blimey! Test error bodies carry no ETag and distinct queries never share one")
+    public void testSearchMoviesETagOnlyOnSuccess() throws Exception {
+        when(movieService.getCatalogVersion()).thenReturn("v1");
+        when(movieService.searchMovies(new MovieSearchCriteria("test", null, null)))
+                .thenThrow(new RuntimeException("Database connection failed"));
+
+        mockMvc.perform(get("/movies/search")
+                .param("name", "test"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(header().doesNotExist("ETag"));
+        mockMvc.perform(get("/movies/search")
+                .param("id", "-1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().doesNotExist("ETag"));
+
+        // "name=a&b=c" as two parameters, and as one name holding the escaped text
+        String split = mockMvc.perform(get("/movies/search")
+                .param("name", "a")
+                .param("b", "c"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        String escaped = mockMvc.perform(get("/movies/search")
+                .param("name", "a&b=c"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(split, "A successful search should carry an ETag!");
+        assertNotEquals(split, escaped, "Different queries should never share an ETag!");
+    }
+
+    @Test
+    @DisplayName("Arrr! Test conditional GET on genres")
+    public void testGetAllGenresNotModified() throws Exception {
+        when(movieService.getCatalogVersion()).thenReturn("v1");
+        when(movieService.getAllGenres()).thenReturn(Arrays.asList("Drama"));
+
+        String etag = mockMvc.perform(get("/movies/genres"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/movies/genres").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        verify(movieService, times(1)).getAllGenres();
+    }
+
+    @Test
+    @DisplayName("Yo ho ho! Test catalog-wide listings are served pre-compressed")
+    public void testPrecompressedListings() throws Exception {
+        // Its own version, as the ready-made bodies outlive a test in the shared context
+        when(movieService.getCatalogVersion()).thenReturn("v-precompressed");
+        when(movieService.getAllGenres()).thenReturn(Arrays.asList("Crime/Drama", "Drama"));
+        when(movieService.getAllMovies()).thenReturn(testMovies);
+
+        MvcResult gzipped = mockMvc.perform(get("/movies/genres").header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", org.hamcrest.Matchers.containsString("Accept-Encoding")))
+                .andReturn();
+        byte[] unzipped = org.springframework.util.StreamUtils.copyToByteArray(new java.util.zip.GZIPInputStream(
+                new java.io.ByteArrayInputStream(gzipped.getResponse().getContentAsByteArray())));
+        assertEquals(2, objectMapper.readTree(unzipped).get("count").asInt(), "Gzip body should hold the genres!");
+        String gzipETag = gzipped.getResponse().getHeader("ETag");
+
+        String identityETag = mockMvc.perform(get("/movies/genres"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(jsonPath("$.genres[1]").value("Drama"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertTrue(!gzipETag.equals(identityETag), "Each encoding should have its own ETag!");
+        verify(movieService, times(1)).getAllGenres();
+
+        mockMvc.perform(get("/movies/search").header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"));
+        mockMvc.perform(get("/movies/search"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.movies[0].movieName").value("The Prison Escape"));
+        verify(movieService, times(1)).getAllMovies();
+    }
+
+    @Test
+    @DisplayName("Ahoy! Test facet counts for a filtered search")
+    public void testGetFacets() throws Exception {
+        MovieSearchCriteria criteria = new MovieSearchCriteria();
+        criteria.setGenre("drama");
+        when(movieService.getFacets(criteria)).thenReturn(MovieFacets.count(new ColumnarCatalog(testMovies), null));
+
+        mockMvc.perform(get("/movies/facets")
+                .param("genre", "drama"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.facets.genres.drama").value(2))
+                .andExpect(jsonPath("$.facets.genres.crime").value(1))
+                .andExpect(jsonPath("$.facets.decades.1990s").value(1))
+                .andExpect(jsonPath("$.facets.directors['John Director']").value(1))
+                .andExpect(jsonPath("$.facets.ratingBands['5.0']").value(2));
+    }
+
+    @Test
+    @DisplayName("Blimey! Test facets reject invalid filters")
+    public void testGetFacetsInvalidFilters() throws Exception {
+        mockMvc.perform(get("/movies/facets")
+                .param("minYear", "2000")
+                .param("maxYear", "1990"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+        verify(movieService, times(0)).getFacets(any(MovieSearchCriteria.class));
+    }
+}
@@ -1,9 +1,16 @@
 package com.amazonaws.samples.qdevmovies.movies;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.test.StepVerifier;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
 
@@ -211,4 +218,265 @@ public class MovieServiceTest {
         results = movieService.searchMovies("any", -5L, "any");
         assertTrue(results.isEmpty(), "Search with negative ID should return empty results!");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Batten down the hatches! Test searching with range filters")
+    public void testSearchMoviesWithRangeFilters() {
+        MovieSearchCriteria criteria = new MovieSearchCriteria();
+        criteria.setMinYear(1990);
+        criteria.setMaxYear(1999);
+        criteria.setMinRating(4.5);
+        criteria.setMaxDuration(150);
+        List<Movie> results = movieService.searchMovies(criteria);
+        assertFalse(results.isEmpty(), "Should find 1990s movies rated 4.5 or more!");
+        assertTrue(results.stream().allMatch(m -> m.getYear() >= 1990 && m.getYear() <= 1999
+                && m.getImdbRating() >= 4.5 && m.getDuration() <= 150),
+                "All results should fall within the ranges!");
+        long expected = movieService.getAllMovies().stream().filter(m -> m.getYear() >= 1990 && m.getYear() <= 1999
+                && m.getImdbRating() >= 4.5 && m.getDuration() <= 150).count();
+        assertEquals(expected, results.size(), "Range filters should match a full scan!");
+
+        // Director partial matching combines with the other filters
+        criteria = new MovieSearchCriteria(null, null, "Drama");
+        criteria.setDirector("DIRECTOR");
+        results = movieService.searchMovies(criteria);
+        assertTrue(results.stream().allMatch(m -> m.getDirector().toLowerCase().contains("director")
+                && m.getGenre().toLowerCase().contains("drama")),
+                "All results should match both director and genre!");
+
+        criteria = new MovieSearchCriteria();
+        criteria.setMinYear(3000);
+        assertTrue(movieService.searchMovies(criteria).isEmpty(), "No movies come from the future!");
+    }
+
+    @Test
+    @DisplayName("Arrr! Test fuzzy name search forgives typos and ranks the closest titles first")
+    public void testFuzzySearch() {
+        MovieService service = new MovieService(java.util.Arrays.asList(
+                new Movie(1L, "The Prison Escape", "Director", 1994, "Drama", "Description", 142, 4.0),
+                new Movie(2L, "Prison Break", "Director", 2005, "Drama", "Description", 100, 4.5),
+                new Movie(3L, "Poison Escape", "Director", 2010, "Thriller", "Description", 110, 3.0),
+                new Movie(4L, "Prism Escape", "Director", 2012, "Drama", "Description", 95, 5.0)));
+
+        MovieSearchCriteria criteria = new MovieSearchCriteria("prisn escape", null, null);
+        assertTrue(service.searchMovies(criteria).isEmpty(), "A plain search should not forgive typos!");
+
+        criteria.setFuzzy(true);
+        List<Movie> results = service.searchMovies(criteria);
+        // "prisn" is one edit from "prison" and "prism" but two from "poison", too many for five letters
+        assertEquals(List.of(4L, 1L), results.stream().map(Movie::getId).collect(java.util.stream.Collectors.toList()),
+                "Equally close titles should rank by rating, and distant ones be left out!");
+
+        // Other filters still apply ("Poison" is a thriller), and a title containing the term counts as an exact match
+        criteria = new MovieSearchCriteria("prison", null, "drama");
+        criteria.setFuzzy(true);
+        criteria.setMaxEdits(2);
+        results = service.searchMovies(criteria);
+        assertEquals(List.of(2L, 1L, 4L), results.stream().map(Movie::getId).collect(java.util.stream.Collectors.toList()),
+                "Exact matches should rank ahead of the near misses, by rating!");
+    }
+
+    @Test
+    @DisplayName("Arrr! Test full-text search ranks titles and descriptions by relevance")
+    public void testFullTextSearch() {
+        MovieService service = new MovieService(java.util.Arrays.asList(
+                new Movie(1L, "Harbor Days", "Director", 1994, "Drama", "A quiet life beside the sea.", 100, 4.0),
+                new Movie(2L, "The Last Voyage", "Director", 2005, "Drama", "A captain sails into the storm of the century.", 100, 4.5),
+                new Movie(3L, "Storm Warning", "Director", 2010, "Thriller", "Sailors brace for a storm.", 110, 3.0)));
+
+        MovieSearchCriteria criteria = new MovieSearchCriteria();
+        criteria.setQ("STORM");
+        List<Movie> results = service.searchMovies(criteria);
+        assertEquals(List.of(3L, 2L), results.stream().map(Movie::getId).collect(java.util.stream.Collectors.toList()),
+                "A storm in the title should outrank one in the description!");
+
+        // Other filters narrow what the query may return
+        criteria.setGenre("drama");
+        results = service.searchMovies(criteria);
+        assertEquals(List.of(2L), results.stream().map(Movie::getId).collect(java.util.stream.Collectors.toList()),
+                "Filtered out movies should not be returned!");
+
+        criteria = new MovieSearchCriteria();
+        criteria.setQ("the of");
+        assertTrue(service.searchMovies(criteria).isEmpty(), "Stop words alone should find nothing!");
+    }
+
+    @Test
+    @DisplayName("Arrr! Test sorted search pages through the top movies")
+    public void testSortedSearch() {
+        MovieService service = new MovieService(java.util.Arrays.asList(
+                new Movie(1L, "Harbor Days", "Director", 1994, "Drama", "A quiet life beside the sea.", 100, 4.0),
+                new Movie(2L, "The Last Voyage", "Director", 2005, "Drama", "A captain sails into the storm.", 120, 4.5),
+                new Movie(3L, "Storm Warning", "Director", 2010, "Thriller", "Sailors brace for a storm.", 110, 3.0),
+                new Movie(4L, "Anchors Aweigh", "Director", 1999, "Drama", "Sailors on leave.", 90, 4.5)));
+
+        MovieSearchCriteria criteria = new MovieSearchCriteria();
+        criteria.setGenre("drama");
+        MoviePage page = service.searchSorted(criteria, MovieSort.RATING, true, null, 2);
+        assertEquals(List.of(4L, 2L), page.getMovies().stream().map(Movie::getId).collect(java.util.stream.Collectors.toList()),
+                "The best rated dramas should come first, ties by descending ID!");
+        assertEquals(3, page.getTotal(), "The total should count every match, not just the page!");
+        assertNotNull(page.getNextCursor(), "A third drama should leave another page to fetch!");
+
+        page = service.searchSorted(criteria, MovieSort.RATING, true, page.getNextCursor(), 2);
+        assertEquals(List.of(1L), page.getMovies().stream().map(Movie::getId).collect(java.util.stream.Collectors.toList()),
+                "The next page should pick up after the last one!");
+        assertNull(page.getNextCursor(), "The last page should have no next cursor!");
+
+        // With no filter every movie is sorted; a full-text query only filters
+        page = service.searchSorted(new MovieSearchCriteria(), MovieSort.NAME, false, null, null);
+        assertEquals(List.of(4L, 1L, 3L, 2L), page.getMovies().stream().map(Movie::getId).collect(java.util.stream.Collectors.toList()),
+                "Names should sort from A to Z!");
+        criteria = new MovieSearchCriteria();
+        criteria.setQ("storm");
+        page = service.searchSorted(criteria, MovieSort.YEAR, false, null, null);
+        assertEquals(List.of(2L, 3L), page.getMovies().stream().map(Movie::getId).collect(java.util.stream.Collectors.toList()),
+                "The sort should replace relevance order!");
+    }
+
+    @Test
+    @DisplayName("Yo ho ho! Test the catalog version is a stable content hash")
+    public void testCatalogVersion() {
+        String version = movieService.getCatalogVersion();
+        assertNotNull(version, "Catalog version should be set!");
+        assertEquals(16, version.length(), "Catalog version should be 16 hex digits!");
+        assertEquals(version, new MovieService().getCatalogVersion(), "Same catalog should give the same version!");
+    }
+
+    @Test
+    @DisplayName("Arrr! Test repeat searches be served from the result cache")
+    public void testSearchCache() {
+        List<Movie> first = movieService.searchMovies(new MovieSearchCriteria("the", null, null));
+        assertEquals(1, movieService.getSearchCacheStats().missCount(), "First search should miss!");
+
+        List<Movie> second = movieService.searchMovies(new MovieSearchCriteria("  THE ", null, ""));
+        assertSame(first, second, "Equivalent search should get the cached result!");
+        assertEquals(1, movieService.getSearchCacheStats().hitCount(), "Normalized search should hit!");
+        assertEquals(1, movieService.getSearchCacheSize(), "One result should be cached!");
+        assertThrows(UnsupportedOperationException.class, () -> second.add(second.get(0)),
+                "Cached results must not be modifiable!");
+
+        String version = movieService.reloadCatalog();
+        assertEquals(movieService.getCatalogVersion(), version, "Reload should report the catalog version!");
+        movieService.searchMovies(new MovieSearchCriteria("the", null, null));
+        assertEquals(2, movieService.getSearchCacheStats().hitCount(),
+                "Reloading an unchanged catalog should keep its cached results!");
+    }
+
+    @Test
+    @DisplayName("Yo ho ho! Test criteria normalize to a canonical cache key")
+    public void testNormalizedCriteria() {
+        MovieSearchCriteria criteria = new MovieSearchCriteria(" Prison ", -1L, "  ");
+        criteria.setDirector("DARABONT");
+        criteria.setMinYear(1990);
+        MovieSearchCriteria normalized = criteria.normalized();
+
+        assertEquals("prison", normalized.getName());
+        assertNull(normalized.getId(), "Non-positive ID should be dropped!");
+        assertNull(normalized.getGenre(), "Blank genre should be dropped!");
+        assertEquals("darabont", normalized.getDirector());
+        assertEquals(Integer.valueOf(1990), normalized.getMinYear());
+        assertEquals(movieService.searchMovies(criteria), movieService.searchMovies(normalized),
+                "Normalized criteria should find the same movies!");
+    }
+
+    @Test
+    @DisplayName("Shiver me timbers! Test facets match the search results")
+    public void testGetFacets() {
+        MovieFacets all = movieService.getFacets(new MovieSearchCriteria());
+        assertEquals(movieService.getAllMovies().size(), all.getTotal(), "Unfiltered facets should count every movie!");
+        assertSame(all, movieService.getFacets(new MovieSearchCriteria()), "Unfiltered facets should be precomputed!");
+
+        MovieSearchCriteria criteria = new MovieSearchCriteria(null, null, "drama");
+        MovieFacets drama = movieService.getFacets(criteria);
+        assertEquals(movieService.searchMovies(criteria).size(), drama.getTotal(), "Facets should count the search matches!");
+        assertEquals(Integer.valueOf(drama.getTotal()), drama.getGenres().get("drama"), "Every match should be a drama!");
+    }
+
+    @Test
+    @DisplayName("Arrr! Test searches record stage latency and result sizes")
+    public void testSearchMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        movieService.bindMetrics(registry);
+
+        MovieSearchCriteria criteria = new MovieSearchCriteria("the", null, "drama");
+        criteria.setMinYear(1990);
+        int found = movieService.searchMovies(criteria).size();
+        movieService.searchMovies(criteria);
+
+        for (String stage : new String[] {"name", "genre", "range"}) {
+            assertEquals(1, registry.get("movies.search.stage").tag("stage", stage).timer().count(),
+                    "Stage " + stage + " should be timed once, the repeat be cached!");
+        }
+        assertEquals(0, registry.get("movies.search.stage").tag("stage", "id").timer().count(), "Unused stage should not be timed!");
+        assertEquals(2, registry.get("movies.search").timer().count(), "Every search should be timed!");
+        assertEquals(2L * found, (long) registry.get("movies.search.results").summary().totalAmount(), "Result sizes should be recorded!");
+        assertEquals(1.0, registry.get("movies.search.cache.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(movieService.getAllMovies().size(), registry.get("movies.catalog.size").gauge().value(), "Catalog gauge should read the catalog!");
+    }
+
+    @Test
+    @DisplayName("Yo ho ho! Test reactive search emits only what the subscriber asks for")
+    public void testStreamMatches() {
+        MovieSearchCriteria criteria = new MovieSearchCriteria(null, null, "drama");
+        List<Movie> expected = movieService.searchMovies(criteria);
+        assertTrue(expected.size() > 2, "Need a few dramas to test demand!");
+        
+        StepVerifier.create(movieService.streamMatches(criteria), 1)
+                .expectNext(expected.get(0))
+                .expectNoEvent(java.time.Duration.ofMillis(50))
+                .thenRequest(1)
+                .expectNext(expected.get(1))
+                .thenCancel()
+                .verify();
+        assertEquals(expected, movieService.streamMatches(criteria).collectList().block(), "Stream should match the list search!");
+        assertEquals(movieService.getAllMovies(), movieService.streamMatches(new MovieSearchCriteria()).collectList().block(),
+                "No criteria should stream the whole chest!");
+    }
+
+    @Test
+    @DisplayName("Ahoy! Test loading a catalog file instead of the bundled one")
+    public void testCatalogPathOverride(@TempDir Path tempDir) throws IOException {
+        Path catalog = tempDir.resolve("movies.json");
+        Files.write(catalog, ("[{\"id\": 7, \"movieName\": \"Generated Voyage\", \"director\": \"Test Director\", \"year\": 2020,"
+                + " \"genre\": \"Drama\", \"description\": \"\", \"duration\": 100, \"imdbRating\": 4.0}]").getBytes(StandardCharsets.UTF_8));
+        System.setProperty(MovieService.CATALOG_PATH_PROPERTY, catalog.toString());
+        System.setProperty(MovieService.SNAPSHOT_PATH_PROPERTY, "");
+        try {
+            MovieService generated = new MovieService();
+            assertEquals(1, generated.getAllMovies().size(), "Only the file's movies should be loaded!");
+            assertEquals("Generated Voyage", generated.getAllMovies().get(0).getMovieName());
+        } finally {
+            System.clearProperty(MovieService.CATALOG_PATH_PROPERTY);
+            System.clearProperty(MovieService.SNAPSHOT_PATH_PROPERTY);
+        }
+    }
+
+    @Test
+    @DisplayName("Arrr! Test the catalog snapshot is opt-in and follows its source")
+    public void testCatalogSnapshot(@TempDir Path tempDir) throws IOException {
+        Path catalog = tempDir.resolve("movies.json");
+        Path snapshot = tempDir.resolve("catalog.snapshot");
+        Files.write(catalog, ("[{\"id\": 7, \"movieName\": \"Generated Voyage\", \"director\": \"Test Director\", \"year\": 2020,"
+                + " \"genre\": \"Drama\", \"description\": \"\", \"duration\": 100, \"imdbRating\": 4.0}]").getBytes(StandardCharsets.UTF_8));
+        System.setProperty(MovieService.CATALOG_PATH_PROPERTY, catalog.toString());
+        try {
+            new MovieService();
+            assertFalse(Files.exists(snapshot), "No snapshot should be written unless one is configured!");
+
+            System.setProperty(MovieService.SNAPSHOT_PATH_PROPERTY, snapshot.toString());
+            String version = new MovieService().getCatalogVersion();
+            assertTrue(Files.exists(snapshot), "A configured snapshot should be written on first load!");
+            assertEquals(version, new MovieService().getCatalogVersion(), "The snapshot should load the same catalog!");
+
+            // An edit changes the source's size, so the snapshot is stale
+            Files.write(catalog, ("[{\"id\": 8, \"movieName\": \"Another Voyage\", \"director\": \"Test Director\", \"year\": 2021,"
+                    + " \"genre\": \"Drama\", \"description\": \"Edited\", \"duration\": 100, \"imdbRating\": 4.0}]").getBytes(StandardCharsets.UTF_8));
+            assertEquals("Another Voyage", new MovieService().getAllMovies().get(0).getMovieName(),
+                    "A stale snapshot should not be used!");
+        } finally {
+            System.clearProperty(MovieService.CATALOG_PATH_PROPERTY);
+            System.clearProperty(MovieService.SNAPSHOT_PATH_PROPERTY);
+        }
+    }
+}
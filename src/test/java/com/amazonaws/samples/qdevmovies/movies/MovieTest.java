@@ -1,11 +1,40 @@
 package com.amazonaws.samples.qdevmovies.movies;
 
+import com.amazonaws.samples.qdevmovies.utils.MovieIconUtils;
+import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 public class MovieTest {
 
 	@Test
 	public void contextLoads() {
 	}
 
+	@Test
+	@DisplayName("Arrr! Movies carry their icon from the icon table, whatever the case of the title")
+	public void testIconResolvedAtLoad() {
+		Movie movie = new Movie(1L, "THE PRISON ESCAPE", "Director", 1994, "Drama", "Description", 142, 5.0);
+		Movie unknown = new Movie(2L, "Uncharted Waters", "Director", 2001, "Drama", "Description", 100, 4.0);
+
+		assertEquals("🔒", movie.getIcon(), "Icon should be looked up case-insensitively, matey!");
+		assertEquals(MovieIconUtils.DEFAULT_ICON, unknown.getIcon(), "Unknown movies should get the default icon!");
+	}
+
+	@Test
+	@DisplayName("Arrr! Icon lookup doesn't depend on the server's default locale")
+	public void testIconLookupIgnoresDefaultLocale() {
+		Locale original = Locale.getDefault();
+		try {
+			// Turkish lowercases a dotted capital I differently, which broke default-locale lookups
+			Locale.setDefault(new Locale("tr"));
+			assertEquals("🔒", MovieIconUtils.getMovieIcon("THE PRISON ESCAPE"),
+					"Icon lookup should fold case the same way in every locale, matey!");
+		} finally {
+			Locale.setDefault(original);
+		}
+	}
 }
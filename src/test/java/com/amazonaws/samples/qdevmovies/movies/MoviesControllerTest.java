@@ -1,18 +1,26 @@
 package com.amazonaws.samples.qdevmovies.movies;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.ui.Model;
 import org.springframework.ui.ExtendedModelMap;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -25,11 +33,13 @@ public class MoviesControllerTest {
     private Model model;
     private MovieService mockMovieService;
     private ReviewService mockReviewService;
+    private ExecutorService detailsExecutor;
 
     @BeforeEach
     public void setUp() {
         moviesController = new MoviesController();
         model = new ExtendedModelMap();
+        detailsExecutor = Executors.newFixedThreadPool(4);
         
         // Create mock services with pirate-themed test data
         mockMovieService = new MovieService() {
@@ -46,7 +56,7 @@ public class MoviesControllerTest {
             
             @Override
             public Optional<Movie> getMovieById(Long id) {
-                return testMovies.stream().filter(m -> m.getId().equals(id)).findFirst();
+                return testMovies.stream().filter(m -> id != null && m.getId() == id).findFirst();
             }
             
             @Override
@@ -94,18 +104,24 @@ public class MoviesControllerTest {
             movieServiceField.setAccessible(true);
             movieServiceField.set(moviesController, mockMovieService);
             
-            java.lang.reflect.Field reviewServiceField = MoviesController.class.getDeclaredField("reviewService");
-            reviewServiceField.setAccessible(true);
-            reviewServiceField.set(moviesController, mockReviewService);
+            java.lang.reflect.Field detailsLoaderField = MoviesController.class.getDeclaredField("movieDetailsLoader");
+            detailsLoaderField.setAccessible(true);
+            detailsLoaderField.set(moviesController, new MovieDetailsLoader(mockMovieService, mockReviewService,
+                    detailsExecutor, Duration.ofSeconds(5), Duration.ofSeconds(5)));
         } catch (Exception e) {
             throw new RuntimeException("Failed to inject mock services", e);
         }
     }
 
+    @AfterEach
+    public void tearDown() {
+        detailsExecutor.shutdownNow();
+    }
+
     @Test
     @DisplayName("Yo ho ho! Test getting all movies without search criteria")
     public void testGetMoviesWithoutSearch() {
-        String result = moviesController.getMovies(model, null, null, null);
+        String result = moviesController.getMovies(model, null, null, null, null, null);
         
         assertNotNull(result, "Result should not be null, ye scallywag!");
         assertEquals("movies", result, "Should return movies template!");
@@ -119,7 +135,7 @@ public class MoviesControllerTest {
     @Test
     @DisplayName("Arrr! Test searching movies by name")
     public void testGetMoviesWithNameSearch() {
-        String result = moviesController.getMovies(model, "treasure", null, null);
+        String result = moviesController.getMovies(model, "treasure", null, null, null, null);
         
         assertEquals("movies", result, "Should return movies template!");
         
@@ -137,7 +153,7 @@ public class MoviesControllerTest {
     @Test
     @DisplayName("Shiver me timbers! Test searching movies by genre")
     public void testGetMoviesWithGenreSearch() {
-        String result = moviesController.getMovies(model, null, null, "Adventure");
+        String result = moviesController.getMovies(model, null, null, "Adventure", null, null);
         
         assertEquals("movies", result, "Should return movies template!");
         
@@ -155,7 +171,7 @@ public class MoviesControllerTest {
     @Test
     @DisplayName("Blimey! Test searching movies by ID")
     public void testGetMoviesWithIdSearch() {
-        String result = moviesController.getMovies(model, null, 1L, null);
+        String result = moviesController.getMovies(model, null, 1L, null, null, null);
         
         assertEquals("movies", result, "Should return movies template!");
         
@@ -174,7 +190,7 @@ public class MoviesControllerTest {
     @Test
     @DisplayName("Batten down the hatches! Test searching with invalid ID")
     public void testGetMoviesWithInvalidId() {
-        String result = moviesController.getMovies(model, null, -1L, null);
+        String result = moviesController.getMovies(model, null, -1L, null, null, null);
         
         assertEquals("movies", result, "Should return movies template!");
         
@@ -192,7 +208,7 @@ public class MoviesControllerTest {
     @Test
     @DisplayName("Chart a course! Test searching with no results")
     public void testGetMoviesWithNoResults() {
-        String result = moviesController.getMovies(model, "nonexistent", null, null);
+        String result = moviesController.getMovies(model, "nonexistent", null, null, null, null);
         
         assertEquals("movies", result, "Should return movies template!");
         
@@ -210,19 +226,23 @@ public class MoviesControllerTest {
     @Test
     @DisplayName("Shiver me timbers! Test getting movie details")
     public void testGetMovieDetails() {
-        String result = moviesController.getMovieDetails(1L, model);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        String result = moviesController.getMovieDetails(1L, model, response).join();
         assertNotNull(result, "Result should not be null!");
         assertEquals("movie-details", result, "Should return movie-details template!");
+        assertNull(response.getHeader("Cache-Control"), "The complete page should stay cacheable!");
         
         Movie movie = (Movie) model.getAttribute("movie");
         assertNotNull(movie, "Movie attribute should be set!");
         assertEquals(1L, movie.getId(), "Movie should have correct ID!");
+        assertEquals("🎬", model.getAttribute("movieIcon"), "Icon should be derived from the title!");
+        assertEquals(false, model.getAttribute("reviewsUnavailable"), "Reviews should have loaded!");
     }
 
     @Test
     @DisplayName("Blimey! Test getting movie details for non-existent movie")
     public void testGetMovieDetailsNotFound() {
-        String result = moviesController.getMovieDetails(999L, model);
+        String result = moviesController.getMovieDetails(999L, model, new MockHttpServletResponse()).join();
         assertNotNull(result, "Result should not be null!");
         assertEquals("error", result, "Should return error template for non-existent movie!");
         
@@ -231,4 +251,120 @@ public class MoviesControllerTest {
         assertEquals("Movie Not Found", title, "Should set error title!");
         assertTrue(message.contains("999"), "Error message should contain the requested ID!");
     }
+
+    @Test
+    @DisplayName("Yo ho ho! Test pages carry a render cache key for their query")
+    public void testRenderCacheKeys() {
+        moviesController.getMovies(model, "Treasure", null, null, null, null);
+        String key = (String) model.getAttribute(RenderedHtmlCache.KEY_ATTRIBUTE);
+        assertNotNull(key, "Movie list should be cacheable!");
+        assertTrue(key.contains(mockMovieService.getCatalogVersion()), "Key should follow the catalog version!");
+        
+        Model emptyName = new ExtendedModelMap();
+        moviesController.getMovies(emptyName, "", null, null, null, null);
+        assertTrue(!key.equals(emptyName.getAttribute(RenderedHtmlCache.KEY_ATTRIBUTE)), "Different queries need different keys!");
+        
+        moviesController.getMovieDetails(1L, model, new MockHttpServletResponse()).join();
+        assertTrue(((String) model.getAttribute(RenderedHtmlCache.KEY_ATTRIBUTE)).startsWith("details:1:"),
+                "Details page should be cacheable!");
+    }
+
+    @Test
+    @DisplayName("Arrr! Test slow reviews fall back without failing the details page")
+    public void testGetMovieDetailsSlowReviews() throws Exception {
+        ReviewService slowReviews = new ReviewService() {
+            @Override
+            public List<Review> getReviewsForMovie(long movieId) {
+                sleep(2000);
+                return new ArrayList<>();
+            }
+        };
+        MovieDetailsLoader loader = new MovieDetailsLoader(mockMovieService, slowReviews, detailsExecutor,
+                Duration.ofSeconds(5), Duration.ofMillis(50));
+        
+        String result = loader.load(1L).thenApply(details -> details.isPresent() ? "movie-details" : "error").join();
+        assertEquals("movie-details", result, "Page should still render without reviews!");
+        assertFalse(loader.load(1L).join().get().isReviewsAvailable(), "Reviews should be flagged unavailable!");
+        assertTrue(loader.load(1L).join().get().getReviews().isEmpty(), "Fallback should show no reviews!");
+        
+        java.lang.reflect.Field detailsLoaderField = MoviesController.class.getDeclaredField("movieDetailsLoader");
+        detailsLoaderField.setAccessible(true);
+        detailsLoaderField.set(moviesController, loader);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertEquals("movie-details", moviesController.getMovieDetails(1L, model, response).join(), "Page should still render!");
+        assertEquals(true, model.getAttribute("reviewsUnavailable"), "The page should show the reviews notice!");
+        assertEquals("no-store", response.getHeader("Cache-Control"), "The fallback page should never be stored!");
+    }
+
+    @Test
+    @DisplayName("Blimey! Test a slow movie lookup shows an unavailable page")
+    public void testGetMovieDetailsSlowMovie() throws Exception {
+        MovieService slowMovies = new MovieService(new ArrayList<>()) {
+            @Override
+            public Optional<Movie> getMovieById(Long id) {
+                sleep(2000);
+                return Optional.empty();
+            }
+        };
+        java.lang.reflect.Field detailsLoaderField = MoviesController.class.getDeclaredField("movieDetailsLoader");
+        detailsLoaderField.setAccessible(true);
+        detailsLoaderField.set(moviesController, new MovieDetailsLoader(slowMovies, mockReviewService, detailsExecutor,
+                Duration.ofMillis(50), Duration.ofSeconds(5)));
+        
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertEquals("error", moviesController.getMovieDetails(1L, model, response).join(), "Should return the error template!");
+        assertEquals("Movie Temporarily Unavailable", model.getAttribute("title"), "Should explain the timeout!");
+        assertEquals("no-store", response.getHeader("Cache-Control"), "The unavailable page should never be stored!");
+        
+        // So the ETag computed for the request is held back
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/movies/1/details");
+        request.setAttribute(CatalogETagInterceptor.ETAG_ATTRIBUTE, "\"v1-details\"");
+        CatalogETagInterceptor.addETag(request, response);
+        assertNull(response.getHeader("ETag"), "A no-store page should carry no ETag!");
+        MockHttpServletResponse complete = new MockHttpServletResponse();
+        CatalogETagInterceptor.addETag(request, complete);
+        assertEquals("\"v1-details\"", complete.getHeader("ETag"), "A complete page should carry the ETag!");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    @DisplayName("Yo ho ho! Test paging through movies with a cursor")
+    public void testGetMoviesWithPaging() {
+        moviesController.getMovies(model, null, null, null, 2, null);
+        
+        @SuppressWarnings("unchecked")
+        List<Movie> firstPage = (List<Movie>) model.getAttribute("movies");
+        assertEquals(2, firstPage.size(), "First page should hold 2 movies!");
+        assertEquals(3, model.getAttribute("totalCount"), "Total should count every movie!");
+        String nextCursor = (String) model.getAttribute("nextCursor");
+        assertNotNull(nextCursor, "First page should link to the next one!");
+        
+        Model nextModel = new ExtendedModelMap();
+        moviesController.getMovies(nextModel, null, null, null, 2, nextCursor);
+        
+        @SuppressWarnings("unchecked")
+        List<Movie> secondPage = (List<Movie>) nextModel.getAttribute("movies");
+        assertEquals(1, secondPage.size(), "Second page should hold the last movie!");
+        assertEquals(3L, secondPage.get(0).getId(), "Second page should continue after the cursor!");
+        assertNull(nextModel.getAttribute("nextCursor"), "Last page should have no next cursor!");
+    }
+
+    @Test
+    @DisplayName("Blimey! Test a malformed cursor falls back to the first page")
+    public void testGetMoviesWithInvalidCursor() {
+        moviesController.getMovies(model, null, null, null, null, "not-a-cursor");
+        
+        @SuppressWarnings("unchecked")
+        List<Movie> movies = (List<Movie>) model.getAttribute("movies");
+        assertEquals(3, movies.size(), "Should show the first page!");
+        assertTrue(((String) model.getAttribute("searchMessage")).contains("lost at sea"),
+                  "Should explain the cursor was ignored!");
+    }
 }
@@ -0,0 +1,79 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ahoy matey! Test class for the pre-compressed catalog-wide responses.
+ */
+public class PrecompressedResponsesTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private MovieService movieService;
+    private PrecompressedResponses responses;
+    private final AtomicInteger builds = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        movieService = new MovieService(Arrays.asList(
+            new Movie(1L, "The Prison Escape", "John Director", 1994, "Drama", "", 142, 5.0)));
+        responses = new PrecompressedResponses(movieService, objectMapper, DataSize.ofMegabytes(1));
+    }
+
+    private Object genres() {
+        builds.incrementAndGet();
+        return Collections.singletonMap("genres", movieService.getAllGenres());
+    }
+
+    @Test
+    @DisplayName("Arrr! Test bodies are built once and served in the accepted encoding")
+    public void testRespond() throws IOException {
+        ResponseEntity<byte[]> identity = responses.respond("/movies/genres", null, this::genres);
+        ResponseEntity<byte[]> gzip = responses.respond("/movies/genres", "gzip, deflate, br", this::genres);
+
+        assertEquals(1, builds.get(), "Body should be built once per catalog version!");
+        assertNull(identity.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING), "Plain clients get plain JSON!");
+        assertEquals("gzip", gzip.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING), "Gzip clients get gzip!");
+        byte[] unzipped = StreamUtils.copyToByteArray(new GZIPInputStream(new ByteArrayInputStream(gzip.getBody())));
+        assertArrayEquals(identity.getBody(), unzipped, "Both encodings should carry the same JSON!");
+        assertEquals("Drama", objectMapper.readTree(identity.getBody()).get("genres").get(0).asText());
+    }
+
+    @Test
+    @DisplayName("Shiver me timbers! Test a new catalog drops the ready-made bodies")
+    public void testCatalogChange() {
+        responses.respond("/movies/genres", "gzip", this::genres);
+        movieService.reloadCatalog();
+        ResponseEntity<byte[]> reloaded = responses.respond("/movies/genres", "gzip", this::genres);
+
+        assertEquals(2, builds.get(), "New catalog should be encoded afresh!");
+        assertEquals("gzip", reloaded.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    @DisplayName("Yo ho ho! Test reading the Accept-Encoding header")
+    public void testAcceptsGzip() {
+        assertTrue(PrecompressedResponses.acceptsGzip("gzip"));
+        assertTrue(PrecompressedResponses.acceptsGzip("deflate, GZIP;q=0.5"));
+        assertTrue(PrecompressedResponses.acceptsGzip("br, *"));
+        assertFalse(PrecompressedResponses.acceptsGzip(null), "No header means identity!");
+        assertFalse(PrecompressedResponses.acceptsGzip("identity"));
+        assertFalse(PrecompressedResponses.acceptsGzip("gzip;q=0"), "Zero quality refuses gzip!");
+        assertFalse(PrecompressedResponses.acceptsGzip("*, gzip;q=0"), "Explicit gzip should beat the wildcard!");
+    }
+}
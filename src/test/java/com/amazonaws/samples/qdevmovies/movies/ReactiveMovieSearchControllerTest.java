@@ -0,0 +1,143 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Ahoy matey! Test class for the reactive movie search endpoints.
+ */
+@WebMvcTest(ReactiveMovieSearchController.class)
+public class ReactiveMovieSearchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private MovieService movieService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Movie testMovie1;
+    private Movie testMovie2;
+
+    @BeforeEach
+    public void setUp() {
+        testMovie1 = new Movie(1L, "The Prison Escape", "John Director", 1994, "Drama", "Test description 1", 142, 5.0);
+        testMovie2 = new Movie(2L, "The Family Boss", "Michael Filmmaker", 1972, "Crime/Drama", "Test description 2", 175, 5.0);
+    }
+
+    @Test
+    @DisplayName("Yo ho ho! Test reactive search streams NDJSON")
+    public void testSearchMoviesAsNdjson() throws Exception {
+        when(movieService.streamMatches(new MovieSearchCriteria(null, null, "Drama"))).thenReturn(Flux.just(testMovie1, testMovie2));
+
+        MvcResult result = mockMvc.perform(get("/reactive/movies/search")
+                .param("genre", "Drama")
+                .accept(MovieSearchController.NDJSON_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MovieSearchController.NDJSON_VALUE))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length, "One line per movie expected!");
+        assertEquals(1, objectMapper.readTree(lines[0]).get("id").asInt(), "First line should be the first movie!");
+        assertEquals(2, objectMapper.readTree(lines[1]).get("id").asInt(), "Second line should be the second movie!");
+    }
+
+    @Test
+    @DisplayName("Arrr! Test reactive search as server-sent events")
+    public void testSearchMoviesAsEvents() throws Exception {
+        when(movieService.streamMatches(new MovieSearchCriteria("prison", null, null))).thenReturn(Flux.just(testMovie1));
+
+        MvcResult result = mockMvc.perform(get("/reactive/movies/search")
+                .param("name", "prison")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(body.startsWith("data:"), "Each movie should be its own event!");
+        assertTrue(body.contains("\"movieName\":\"The Prison Escape\""), "Event should carry the movie!");
+    }
+
+    @Test
+    @DisplayName("Blimey! Test reactive search rejects bad filters")
+    public void testSearchMoviesInvalidFilters() throws Exception {
+        MvcResult result = mockMvc.perform(get("/reactive/movies/search")
+                .param("minYear", "2000")
+                .param("maxYear", "1990")
+                .accept(MovieSearchController.NDJSON_VALUE))
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+
+        assertFalse(objectMapper.readTree(body.trim()).get("success").asBoolean(), "Error line should report failure!");
+    }
+
+    @Test
+    @DisplayName("Blimey! Test reactive search rejects an edit limit the JSON search rejects")
+    public void testSearchMoviesInvalidEditLimit() throws Exception {
+        MvcResult result = mockMvc.perform(get("/reactive/movies/search")
+                .param("name", "prison")
+                .param("fuzzy", "true")
+                .param("maxEdits", "0")
+                .accept(MovieSearchController.NDJSON_VALUE))
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals("Arrr! A fuzzy search forgives one or two slips of the quill per word, no more and no fewer, ye scallywag!",
+                objectMapper.readTree(body.trim()).get("message").asText(), "Error line should say what was wrong!");
+    }
+
+    @Test
+    @DisplayName("Ahoy! Test reactive genres stream")
+    public void testGetAllGenres() throws Exception {
+        when(movieService.getAllGenres()).thenReturn(Arrays.asList("Crime/Drama", "Drama"));
+
+        MvcResult result = mockMvc.perform(get("/reactive/movies/genres")
+                .accept(MovieSearchController.NDJSON_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length, "One genre per line expected!");
+        assertEquals("Crime/Drama", objectMapper.readTree(lines[0]).get("genre").asText(), "Genres should keep their order!");
+        assertEquals("Drama", objectMapper.readTree(lines[1]).get("genre").asText(), "Genres should keep their order!");
+    }
+}
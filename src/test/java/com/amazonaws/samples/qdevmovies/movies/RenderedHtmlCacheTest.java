@@ -0,0 +1,152 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.View;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ahoy matey! Test class for the rendered HTML cache and the view that serves it.
+ */
+public class RenderedHtmlCacheTest {
+
+    private MovieService movieService;
+    private RenderedHtmlCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        movieService = new MovieService(Arrays.asList(
+            new Movie(1L, "The Prison Escape", "John Director", 1994, "Drama", "", 142, 4.5)));
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        cache = new RenderedHtmlCache(movieService, engine, DataSize.ofMegabytes(1));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), new MockHttpServletResponse()));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("Arrr! Test a movie card is rendered once and then served from the cache")
+    public void testCard() {
+        Movie movie = movieService.getAllMovies().get(0);
+
+        String card = cache.card(movie);
+        assertTrue(card.contains("<h3>The Prison Escape</h3>"), "Card should show the title!");
+        assertTrue(card.contains("href=\"/movies/1/details\""), "Card should link to the details page!");
+        assertTrue(card.contains("4.5/5"), "Card should show the rating!");
+        assertSame(card, cache.card(movie), "Second card should come from the cache!");
+        assertEquals(1, cache.getStats().hitCount());
+    }
+
+    @Test
+    @DisplayName("Yo ho ho! Test each context path gets cards linking under it")
+    public void testCardPerContextPath() {
+        Movie movie = movieService.getAllMovies().get(0);
+        String root = cache.card(movie);
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContextPath("/fleet");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, new MockHttpServletResponse()));
+        String fleet = cache.card(movie);
+        assertTrue(fleet.contains("href=\"/fleet/movies/1/details\""), "Card should link under its own context path!");
+        assertSame(fleet, cache.card(movie), "The context path's card should be cached too!");
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), new MockHttpServletResponse()));
+        assertSame(root, cache.card(movie), "The root card should not be replaced by another context's!");
+        assertTrue(root.contains("href=\"/movies/1/details\""), "Root card should link from the root!");
+    }
+
+    @Test
+    @DisplayName("Blimey! Test HTML that may carry a session ID in its links is never cached")
+    public void testNoCachingWithUrlSession() throws Exception {
+        Movie movie = movieService.getAllMovies().get(0);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.getSession(true);
+        request.setRequestedSessionIdFromCookie(false);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, new MockHttpServletResponse()));
+
+        assertNotSame(cache.card(movie), cache.card(movie), "Session-rewritten cards should render every time!");
+        AtomicInteger renders = new AtomicInteger();
+        cache.page("movies:v1", Locale.ENGLISH, () -> "page" + renders.incrementAndGet());
+        assertEquals("page2", cache.page("movies:v1", Locale.ENGLISH, () -> "page" + renders.incrementAndGet()),
+                "Session-rewritten pages should render every time!");
+        assertEquals(0, cache.getStats().hitCount() + cache.getStats().missCount(), "The cache should not be consulted!");
+    }
+
+    @Test
+    @DisplayName("Shiver me timbers! Test a new catalog drops cached cards and pages")
+    public void testCatalogChange() throws Exception {
+        AtomicInteger renders = new AtomicInteger();
+        cache.page("movies:v1", Locale.ENGLISH, () -> "page" + renders.incrementAndGet());
+        assertEquals("page1", cache.page("movies:v1", Locale.ENGLISH, () -> "page" + renders.incrementAndGet()));
+        assertEquals("page2", cache.page("movies:v1", Locale.FRENCH, () -> "page" + renders.incrementAndGet()),
+                "Each locale should render its own page!");
+
+        movieService.reloadCatalog();
+        assertEquals("page3", cache.page("movies:v1", Locale.ENGLISH, () -> "page" + renders.incrementAndGet()),
+                "Pages should be rendered afresh after a reload!");
+    }
+
+    @Test
+    @DisplayName("Yo ho ho! Test the caching view renders a keyed page only once")
+    public void testCachingView() throws Exception {
+        AtomicInteger renders = new AtomicInteger();
+        View delegate = new View() {
+            @Override
+            public String getContentType() {
+                return "text/html;charset=UTF-8";
+            }
+
+            @Override
+            public void render(Map<String, ?> model, javax.servlet.http.HttpServletRequest request,
+                               javax.servlet.http.HttpServletResponse response) throws Exception {
+                response.setContentType(getContentType());
+                response.getWriter().write("<p>Render " + renders.incrementAndGet() + "</p>");
+            }
+        };
+        View view = new RenderCachingViewResolver.CachingView(delegate, cache, Locale.ENGLISH);
+        Map<String, Object> keyed = Collections.singletonMap(RenderedHtmlCache.KEY_ATTRIBUTE, "details:1:v1");
+
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            view.render(keyed, new MockHttpServletRequest(), response);
+            assertEquals("<p>Render 1</p>", response.getContentAsString(), "Keyed page should be rendered once!");
+            assertEquals("text/html;charset=UTF-8", response.getContentType());
+        }
+        MockHttpServletResponse unkeyed = new MockHttpServletResponse();
+        view.render(Collections.emptyMap(), new MockHttpServletRequest(), unkeyed);
+        assertEquals("<p>Render 2</p>", unkeyed.getContentAsString(), "Pages without a key should always render!");
+    }
+
+    @Test
+    @DisplayName("Arrr! Test page key parts keep absent, empty and tricky values apart")
+    public void testKeyPart() {
+        assertEquals("", RenderedHtmlCache.keyPart("name", null));
+        assertEquals("&name=", RenderedHtmlCache.keyPart("name", ""));
+        assertEquals("&name=a%26genre%3Dx", RenderedHtmlCache.keyPart("name", "a&genre=x"),
+                "A value should never pass for another parameter!");
+        assertEquals("&id=7", RenderedHtmlCache.keyPart("id", 7L));
+    }
+}
@@ -0,0 +1,83 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ahoy matey! Test class for the ReviewService review index.
+ */
+public class ReviewServiceTest {
+
+    private ReviewService reviewService;
+
+    @BeforeEach
+    public void setUp() {
+        reviewService = new ReviewService();
+    }
+
+    @Test
+    @DisplayName("Arrr! Test reviews are served from the index")
+    public void testGetReviewsForMovie() {
+        List<Review> reviews = reviewService.getReviewsForMovie(1L);
+
+        assertFalse(reviews.isEmpty(), "Movie 1 should have reviews, matey!");
+        assertSame(reviews, reviewService.getReviewsForMovie(1L), "Repeated lookups should hit the same indexed list!");
+        assertThrows(UnsupportedOperationException.class, () -> reviews.add(null), "Indexed reviews should be immutable!");
+    }
+
+    @Test
+    @DisplayName("Blimey! Test reviews for an unknown movie")
+    public void testGetReviewsForUnknownMovie() {
+        assertTrue(reviewService.getReviewsForMovie(999L).isEmpty(), "Unknown movie should have no reviews!");
+        assertTrue(reviewService.getReviewsForMovie(-1L).isEmpty(), "Negative ID should have no reviews!");
+    }
+
+    @Test
+    @DisplayName("Yo ho ho! Test index statistics")
+    public void testIndexStatistics() {
+        assertEquals(12, reviewService.getIndexedMovieCount(), "All 12 movies should be indexed!");
+        assertTrue(reviewService.getReviewCount() >= reviewService.getIndexedMovieCount(), "Each indexed movie has at least one review!");
+        assertTrue(reviewService.getLoadTimeMillis() >= 0, "Load time should never be negative!");
+        assertTrue(reviewService.estimateMemoryBytes() > 0, "Memory estimate should be positive!");
+    }
+
+    @Test
+    @DisplayName("Arrr! Test review lookups be timed")
+    public void testLookupMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        reviewService.bindMetrics(registry);
+        reviewService.getReviewsForMovie(1L);
+        reviewService.getReviewsForMovie(999L);
+
+        assertEquals(2, registry.get("movies.reviews.lookup").timer().count(), "Every lookup should be timed!");
+        assertEquals(reviewService.getReviewCount(), registry.get("movies.reviews.count").gauge().value(),
+                "Review count gauge should read the index!");
+    }
+
+    @Test
+    @DisplayName("Ahoy! Test loading a reviews file instead of the bundled one")
+    public void testReviewsPathOverride(@TempDir Path tempDir) throws IOException {
+        Path reviews = tempDir.resolve("mock-reviews.json");
+        Files.write(reviews, "{\"7\": [{\"userName\": \"Tester\", \"avatarEmoji\": \"\\uD83E\\uDD9C\", \"rating\": 4.5, \"comment\": \"Arrr!\"}]}"
+                .getBytes(StandardCharsets.UTF_8));
+        System.setProperty(ReviewService.REVIEWS_PATH_PROPERTY, reviews.toString());
+        try {
+            ReviewService generated = new ReviewService();
+            assertEquals(1, generated.getReviewCount(), "Only the file's reviews should be loaded!");
+            assertEquals("\uD83E\uDD9C", generated.getReviewsForMovie(7L).get(0).getAvatarEmoji(), "Escaped emoji should decode!");
+        } finally {
+            System.clearProperty(ReviewService.REVIEWS_PATH_PROPERTY);
+        }
+    }
+}
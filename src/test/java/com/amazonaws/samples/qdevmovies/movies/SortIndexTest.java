@@ -0,0 +1,141 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ahoy matey! Test class for the SortIndex pre-sorted orders.
+ */
+public class SortIndexTest {
+
+    private List<Movie> movies;
+    private SortIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        Random random = new Random(7);
+        movies = new ArrayList<>();
+        List<String> titleKeys = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            // Few distinct values, so plenty of ties to break
+            String title = "Voyage " + (char) ('a' + random.nextInt(26));
+            movies.add(new Movie(i + 1, title, "Director", 1990 + random.nextInt(30), "Drama", "Description",
+                    80 + random.nextInt(60), random.nextInt(11) / 2.0));
+            titleKeys.add(MovieSearchCriteria.searchKey(title));
+        }
+        index = new SortIndex(new ColumnarCatalog(movies), titleKeys);
+    }
+
+    private static Comparator<Integer> expectedOrder(MovieSort sort, List<Movie> movies, boolean descending) {
+        Comparator<Integer> byKey;
+        switch (sort) {
+            case RATING:
+                byKey = Comparator.comparingDouble(ordinal -> movies.get(ordinal).getImdbRating());
+                break;
+            case YEAR:
+                byKey = Comparator.comparingInt(ordinal -> movies.get(ordinal).getYear());
+                break;
+            case DURATION:
+                byKey = Comparator.comparingInt(ordinal -> movies.get(ordinal).getDuration());
+                break;
+            default:
+                byKey = Comparator.comparing(ordinal -> movies.get(ordinal).getMovieName().toLowerCase());
+        }
+        Comparator<Integer> ascending = byKey.thenComparingInt(ordinal -> ordinal);
+        return descending ? ascending.reversed() : ascending;
+    }
+
+    @Test
+    @DisplayName("Arrr! Test paging through sorted matches agrees with sorting them outright")
+    public void testPagesMatchFullSort() {
+        Random random = new Random(11);
+        BitSet half = new BitSet();
+        BitSet sparse = new BitSet();
+        for (int ordinal = 0; ordinal < movies.size(); ordinal++) {
+            if (random.nextBoolean()) {
+                half.set(ordinal);
+            }
+            if (random.nextInt(50) == 0) {
+                sparse.set(ordinal);
+            }
+        }
+        // Every movie, a filter the walk serves, and one sparse enough to sort its matches instead
+        for (BitSet matches : Arrays.asList(null, half, sparse)) {
+            List<Integer> matching = IntStream.range(0, movies.size())
+                    .filter(ordinal -> matches == null || matches.get(ordinal))
+                    .boxed().collect(Collectors.toList());
+            for (MovieSort sort : MovieSort.values()) {
+                for (boolean descending : new boolean[] {false, true}) {
+                    List<Integer> expected = new ArrayList<>(matching);
+                    expected.sort(expectedOrder(sort, movies, descending));
+                    for (int limit : new int[] {1, 7, 100}) {
+                        List<Integer> paged = new ArrayList<>();
+                        int after = -1;
+                        int[] page;
+                        do {
+                            page = index.page(sort, descending, matches, matching.size(), after, limit);
+                            assertTrue(page.length <= limit, "A page should never outgrow its limit!");
+                            for (int ordinal : page) {
+                                paged.add(ordinal);
+                            }
+                            after = page.length > 0 ? page[page.length - 1] : after;
+                        } while (page.length == limit);
+                        assertEquals(expected, paged,
+                                "Pages sorted by " + sort + (descending ? " desc" : " asc") + " should follow the full sort!");
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Shiver me timbers! Test a page resumes after a movie that no longer matches")
+    public void testResumesAfterNonMatchingMovie() {
+        BitSet matches = new BitSet();
+        matches.set(0, movies.size(), true);
+        int[] firstPage = index.page(MovieSort.YEAR, true, matches, movies.size(), -1, 5);
+        int lastOrdinal = firstPage[firstPage.length - 1];
+
+        // The previous page's last movie drops out, as after a reload changed it
+        matches.clear(lastOrdinal);
+        int[] expected = index.page(MovieSort.YEAR, true, null, movies.size(), lastOrdinal, 5);
+        int[] walked = index.page(MovieSort.YEAR, true, matches, movies.size() - 1, lastOrdinal, 5);
+        assertArrayEquals(expected, walked, "The walk should resume right after the old last movie!");
+
+        BitSet sparse = new BitSet();
+        for (int ordinal : expected) {
+            sparse.set(ordinal);
+        }
+        int[] sorted = index.page(MovieSort.YEAR, true, sparse, sparse.cardinality(), lastOrdinal, 5);
+        assertArrayEquals(expected, sorted, "Sorting the matches should resume at the same spot!");
+        assertEquals(0, index.page(MovieSort.YEAR, true, new BitSet(), 0, -1, 5).length,
+                "No matches should make an empty page!");
+    }
+
+    @Test
+    @DisplayName("Ahoy! Test tied movies come by ID, reversed when descending")
+    public void testTiesByOrdinal() {
+        List<Movie> tied = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            tied.add(new Movie(i + 1, "Same", "Director", 2000, "Drama", "Description", 100, 4.0));
+        }
+        SortIndex tiedIndex = new SortIndex(new ColumnarCatalog(tied), Collections.nCopies(4, "same"));
+        assertArrayEquals(new int[] {0, 1, 2, 3}, tiedIndex.page(MovieSort.RATING, false, null, 4, -1, 10),
+                "Ascending ties should come in ID order!");
+        assertArrayEquals(new int[] {3, 2, 1, 0}, tiedIndex.page(MovieSort.RATING, true, null, 4, -1, 10),
+                "Descending should be ascending reversed!");
+    }
+}
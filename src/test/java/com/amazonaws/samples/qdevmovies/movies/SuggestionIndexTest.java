@@ -0,0 +1,97 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ahoy matey! Test class for the SuggestionIndex autocomplete trie.
+ */
+public class SuggestionIndexTest {
+
+    private List<SuggestionIndex.Suggestion> entries;
+    private SuggestionIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        entries = new ArrayList<>();
+        String[] titles = {"The Prison Escape", "The Family Boss", "The Masked Hero", "Prison Break",
+                "The Quest for the Ring", "Space Wars: The Beginning", "The Pirate's Extraordinarily Long Voyage Home"};
+        for (int i = 0; i < titles.length; i++) {
+            entries.add(new SuggestionIndex.Suggestion(titles[i], 3.0 + (i % 3) * 0.5, (long) i + 1));
+        }
+        // More matches for "the" than fit in one node's top list
+        for (int i = 0; i < 15; i++) {
+            entries.add(new SuggestionIndex.Suggestion("The Sequel " + i, 1.0 + i * 0.1, 100L + i));
+        }
+        index = new SuggestionIndex(entries);
+    }
+
+    @Test
+    @DisplayName("Arrr! Test suggestions match a scan for every prefix of every word")
+    public void testSuggestMatchesScan() {
+        List<String> prefixes = new ArrayList<>(Arrays.asList("", "x", "the q", "pirate's extraordinarily long voyage", "ring", "wars: the b"));
+        for (SuggestionIndex.Suggestion entry : entries) {
+            String key = MovieSearchCriteria.searchKey(entry.getText());
+            for (int end = 1; end <= key.length(); end++) {
+                prefixes.add(key.substring(0, end));
+                prefixes.add(key.substring(key.lastIndexOf(' ') + 1, Math.max(key.lastIndexOf(' ') + 1, end)));
+            }
+        }
+        for (String prefix : prefixes) {
+            for (int limit : new int[] {1, 3, SuggestionIndex.TOP_K}) {
+                assertEquals(scan(prefix, limit), texts(index.suggest(prefix, limit)),
+                        "Trie should match a scan for '" + prefix + "' limited to " + limit + "!");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Yo ho ho! Test the best rated suggestions come first")
+    public void testSuggestRanksByRating() {
+        List<String> results = texts(index.suggest("prison", SuggestionIndex.TOP_K));
+        assertEquals(Arrays.asList("Prison Break", "The Prison Escape"), results, "Higher rated titles should come first!");
+        assertEquals(SuggestionIndex.TOP_K, index.suggest("the", SuggestionIndex.TOP_K).size(), "Should fill the top list!");
+        assertTrue(index.suggest("zzz", SuggestionIndex.TOP_K).isEmpty(), "Nothing should start with zzz!");
+    }
+
+    @Test
+    @DisplayName("Shiver me timbers! Test an empty index suggests nothing")
+    public void testEmptyIndex() {
+        SuggestionIndex empty = new SuggestionIndex(new ArrayList<>());
+        assertTrue(empty.suggest("the", SuggestionIndex.TOP_K).isEmpty(), "An empty index should suggest nothing!");
+        assertEquals(0, empty.size(), "An empty index should hold no suggestions!");
+    }
+
+    private List<String> scan(String prefix, int limit) {
+        return entries.stream()
+                .filter(entry -> {
+                    String key = MovieSearchCriteria.searchKey(entry.getText());
+                    for (int start = 0; start + prefix.length() <= key.length(); start++) {
+                        boolean wordStart = start == 0 || (!Character.isLetterOrDigit(key.charAt(start - 1))
+                                && Character.isLetterOrDigit(key.charAt(start)));
+                        if (wordStart && key.startsWith(prefix, start)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                })
+                .sorted(Comparator.comparingDouble(SuggestionIndex.Suggestion::getImdbRating).reversed()
+                        .thenComparing(entry -> MovieSearchCriteria.searchKey(entry.getText())))
+                .limit(Math.min(limit, SuggestionIndex.TOP_K))
+                .map(SuggestionIndex.Suggestion::getText)
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> texts(List<SuggestionIndex.Suggestion> suggestions) {
+        return suggestions.stream().map(SuggestionIndex.Suggestion::getText).collect(Collectors.toList());
+    }
+}
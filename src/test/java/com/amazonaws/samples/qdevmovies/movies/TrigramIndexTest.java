@@ -0,0 +1,43 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ahoy matey! Test class for the TrigramIndex substring search.
+ */
+public class TrigramIndexTest {
+
+    private List<String> keys;
+    private TrigramIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        keys = Arrays.asList("the prison escape", "the family boss", "dream heist", "the wise guys", "space wars: the beginning", "aaaa");
+        index = new TrigramIndex(keys);
+    }
+
+    @Test
+    @DisplayName("Arrr! Test index results match a full scan")
+    public void testSearchMatchesScan() {
+        for (String term : Arrays.asList("the", "the ", "prison", "e b", "es", "a", "", "aaa", "aaaa", "aaaaa", "wars:", "xyz", "heist dream")) {
+            int[] expected = IntStream.range(0, keys.size()).filter(i -> keys.get(i).contains(term)).toArray();
+            assertArrayEquals(expected, index.search(term), "Index should match a scan for '" + term + "'!");
+        }
+    }
+
+    @Test
+    @DisplayName("Shiver me timbers! Test trigram candidates are verified")
+    public void testCandidatesAreVerified() {
+        // "the be" shares all its trigrams with "space wars: the beginning" but only as a substring there
+        assertArrayEquals(new int[] {4}, index.search("the be"), "Only the true substring match should survive!");
+        assertArrayEquals(new int[0], index.search("boss the"), "Shared trigrams in the wrong order should not match!");
+    }
+}